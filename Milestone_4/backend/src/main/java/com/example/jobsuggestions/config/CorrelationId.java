@@ -0,0 +1,90 @@
+package com.example.jobsuggestions.config;
+
+import org.slf4j.MDC;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Per-request correlation id and payload-sampling flag, kept in the SLF4J MDC by
+// CorrelationIdFilter so every log line of a request carries them. Completion stages of AI
+// calls run on HttpClient threads, so callbacks are wrapped to carry the request's MDC along.
+public final class CorrelationId {
+
+    public static final String HEADER = "X-Correlation-Id";
+    public static final String MDC_KEY = "correlationId";
+    public static final String USER_MDC_KEY = "userId";
+    static final String SAMPLED_MDC_KEY = "payloadSampled";
+
+    private CorrelationId() {
+    }
+
+    public static String current() {
+        return MDC.get(MDC_KEY);
+    }
+
+    // True when this request was picked for verbose payload logging (answers, response bodies)
+    public static boolean payloadSampled() {
+        return MDC.get(SAMPLED_MDC_KEY) != null;
+    }
+
+    public static <T, R> Function<T, R> wrap(Function<T, R> callback) {
+        Snapshot snapshot = Snapshot.capture();
+        return value -> {
+            Snapshot previous = snapshot.apply();
+            try {
+                return callback.apply(value);
+            } finally {
+                previous.apply();
+            }
+        };
+    }
+
+    public static <T, U, R> BiFunction<T, U, R> wrapHandler(BiFunction<T, U, R> callback) {
+        Snapshot snapshot = Snapshot.capture();
+        return (value, error) -> {
+            Snapshot previous = snapshot.apply();
+            try {
+                return callback.apply(value, error);
+            } finally {
+                previous.apply();
+            }
+        };
+    }
+
+    public static <T, U> BiConsumer<T, U> wrapCompletion(BiConsumer<T, U> callback) {
+        Snapshot snapshot = Snapshot.capture();
+        return (value, error) -> {
+            Snapshot previous = snapshot.apply();
+            try {
+                callback.accept(value, error);
+            } finally {
+                previous.apply();
+            }
+        };
+    }
+
+    // The three MDC entries this class owns; apply() installs them and returns what it replaced
+    private record Snapshot(String correlationId, String userId, String sampled) {
+
+        static Snapshot capture() {
+            return new Snapshot(MDC.get(MDC_KEY), MDC.get(USER_MDC_KEY), MDC.get(SAMPLED_MDC_KEY));
+        }
+
+        Snapshot apply() {
+            Snapshot previous = capture();
+            set(MDC_KEY, correlationId);
+            set(USER_MDC_KEY, userId);
+            set(SAMPLED_MDC_KEY, sampled);
+            return previous;
+        }
+
+        private static void set(String key, String value) {
+            if (value == null) {
+                MDC.remove(key);
+            } else {
+                MDC.put(key, value);
+            }
+        }
+    }
+}
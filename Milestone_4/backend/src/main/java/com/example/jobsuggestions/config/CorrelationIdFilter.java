@@ -0,0 +1,65 @@
+package com.example.jobsuggestions.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// Tags each request with a correlation id: the caller's X-Correlation-Id when it looks sane,
+// otherwise a fresh one. It is echoed in the response, put in the MDC with the session's user
+// id, and forwarded to the AI provider. The same id also decides whether the request's verbose
+// payload logs are kept, so a sampled request is logged completely or not at all.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final int sampledPerTenThousand;
+
+    public CorrelationIdFilter(@Value("${suggestions.logging.payload-sample-rate:0.01}") double payloadSampleRate) {
+        this.sampledPerTenThousand = (int) Math.round(Math.max(0, Math.min(1, payloadSampleRate)) * 10_000);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String id = request.getHeader(CorrelationId.HEADER);
+        if (id == null || !VALID_ID.matcher(id).matches()) {
+            id = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        }
+        response.setHeader(CorrelationId.HEADER, id);
+
+        MDC.put(CorrelationId.MDC_KEY, id);
+        HttpSession session = request.getSession(false);
+        Object userId = session != null ? session.getAttribute("userId") : null;
+        if (userId != null) {
+            MDC.put(CorrelationId.USER_MDC_KEY, userId.toString());
+        }
+        if (isSampled(id)) {
+            MDC.put(CorrelationId.SAMPLED_MDC_KEY, "true");
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(CorrelationId.MDC_KEY);
+            MDC.remove(CorrelationId.USER_MDC_KEY);
+            MDC.remove(CorrelationId.SAMPLED_MDC_KEY);
+        }
+    }
+
+    boolean isSampled(String id) {
+        return Math.floorMod(id.hashCode(), 10_000) < sampledPerTenThousand;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.jobsuggestions.config;
+
+import com.example.jobsuggestions.model.CurrentUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+// Resolves CurrentUser handler arguments from the session attributes AuthController sets.
+// Resolves to null when there is no session or nobody is logged in; controllers decide what
+// an anonymous request gets.
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CurrentUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        HttpSession session = request != null ? request.getSession(false) : null;
+        if (session == null) {
+            return null;
+        }
+
+        Long userId = (Long) session.getAttribute("userId");
+        if (userId == null) {
+            return null;
+        }
+        return new CurrentUser(userId, (String) session.getAttribute("username"));
+    }
+}
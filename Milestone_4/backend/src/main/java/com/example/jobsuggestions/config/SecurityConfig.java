@@ -3,22 +3,30 @@ package com.example.jobsuggestions.config;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import jakarta.servlet.SessionCookieConfig;
 import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSession;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Configuration
 @EnableWebSecurity
@@ -29,21 +37,53 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    // Stats and metrics expose internal load and usage, so they need a logged-in session, or
+    // HTTP Basic credentials of an app user for scrapers that cannot hold a session. Basic auth
+    // is limited to this chain, so a stray Authorization header elsewhere is ignored.
     @Bean
+    @Order(1)
+    public SecurityFilterChain monitoringSecurityFilterChain(HttpSecurity http) throws Exception {
+        common(http)
+            .securityMatcher("/api/stats/**", "/actuator/**")
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/actuator/health").permitAll()
+                .anyRequest().access(SecurityConfig::loggedIn)
+            )
+            .httpBasic(Customizer.withDefaults());
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        http
+        common(http)
+            // Allow all requests - we handle authentication manually in controllers
+            .authorizeHttpRequests(auth -> auth
+                .anyRequest().permitAll()
+            );
+
+        return http.build();
+    }
+
+    private HttpSecurity common(HttpSecurity http) throws Exception {
+        return http
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(session -> 
                 session.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
             )
-            // Allow all requests - we handle authentication manually in controllers
-            .authorizeHttpRequests(auth -> auth
-                .anyRequest().permitAll()
-            )
             .headers(headers -> headers.frameOptions(frame -> frame.sameOrigin()));
+    }
 
-        return http.build();
+    private static AuthorizationDecision loggedIn(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        HttpSession session = context.getRequest().getSession(false);
+        if (session != null && session.getAttribute("userId") != null) {
+            return new AuthorizationDecision(true);
+        }
+        Authentication basic = authentication.get();
+        return new AuthorizationDecision(basic != null && basic.isAuthenticated()
+                && !(basic instanceof AnonymousAuthenticationToken));
     }
 
     @Bean
@@ -0,0 +1,28 @@
+package com.example.jobsuggestions.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+// suggestions.threads.mode=virtual runs each Tomcat request on its own virtual thread instead of
+// the bounded worker pool (server.tomcat.threads.max), so a request waiting on the AI provider
+// no longer holds one of a few hundred platform threads. The default, platform, leaves Tomcat
+// as configured.
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "suggestions.threads.mode", havingValue = VirtualThreads.VIRTUAL)
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("tomcat-virtual-");
+        log.info("Tomcat requests run on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.jobsuggestions.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+// Virtual-thread executors for suggestions.threads.mode=virtual. The build targets Java 17, so
+// the Java 21 API (Thread.ofVirtual, Executors.newThreadPerTaskExecutor) is reached through
+// reflection; on older runtimes isSupported() is false and the factory methods throw.
+public final class VirtualThreads {
+
+    public static final String PLATFORM = "platform";
+    public static final String VIRTUAL = "virtual";
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // Validates a configured mode, failing startup on a typo or on virtual without Java 21
+    public static boolean isVirtual(String mode) {
+        if (VIRTUAL.equalsIgnoreCase(mode)) {
+            if (!isSupported()) {
+                throw new IllegalStateException("suggestions.threads.mode=virtual requires Java 21 or newer, running on "
+                        + Runtime.version());
+            }
+            return true;
+        }
+        if (PLATFORM.equalsIgnoreCase(mode)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unknown suggestions.threads.mode '" + mode + "' (expected platform or virtual)");
+    }
+
+    // Thread factory for virtual threads named prefix0, prefix1, ...
+    public static ThreadFactory factory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    // One new virtual thread per task; blocking a task parks it instead of holding a carrier thread
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Method method = java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory(namePrefix));
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    private static IllegalStateException unsupported(Exception cause) {
+        return new IllegalStateException("Virtual threads are not available on Java " + Runtime.version(), cause);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.jobsuggestions.controller;
+
+import com.example.jobsuggestions.config.VirtualThreads;
+import com.example.jobsuggestions.service.AiCallGuard;
+import com.example.jobsuggestions.service.EntityCacheStats;
+import com.example.jobsuggestions.service.InFlightGenerations;
+import com.example.jobsuggestions.service.MaxTokensPolicy;
+import com.example.jobsuggestions.service.SuggestionCache;
+import com.example.jobsuggestions.service.SuggestionPayloadCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+public class StatsController {
+
+    @Autowired
+    private SuggestionCache suggestionCache;
+
+    @Autowired
+    private SuggestionPayloadCache suggestionPayloadCache;
+
+    @Autowired
+    private EntityCacheStats entityCacheStats;
+
+    @Autowired
+    private InFlightGenerations inFlightGenerations;
+
+    @Autowired
+    private AiCallGuard aiCallGuard;
+
+    @Autowired
+    private MaxTokensPolicy maxTokensPolicy;
+
+    @Value("${suggestions.threads.mode:platform}")
+    private String threadsMode;
+
+    // GET /api/stats/cache - Hit/miss/eviction counters for the AI suggestion cache
+    @GetMapping("/cache")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(suggestionCache.stats());
+    }
+
+    // GET /api/stats/payloads - Hit/miss/eviction counters for the encoded suggestion JSON
+    @GetMapping("/payloads")
+    public ResponseEntity<?> getPayloadCacheStats() {
+        return ResponseEntity.ok(suggestionPayloadCache.stats());
+    }
+
+    // GET /api/stats/entity-cache - Hibernate second-level and query cache hit ratios per region
+    @GetMapping("/entity-cache")
+    public ResponseEntity<?> getEntityCacheStats() {
+        return ResponseEntity.ok(entityCacheStats.stats());
+    }
+
+    // GET /api/stats/inflight - Pending AI calls and how many requests were coalesced onto them
+    @GetMapping("/inflight")
+    public ResponseEntity<?> getInFlightStats() {
+        return ResponseEntity.ok(inFlightGenerations.stats());
+    }
+
+    // GET /api/stats/ai - Circuit breaker state, AI calls in progress and rejection counts
+    @GetMapping("/ai")
+    public ResponseEntity<?> getAiStats() {
+        return ResponseEntity.ok(aiCallGuard.stats());
+    }
+
+    // GET /api/stats/tokens - Adaptive max_tokens caps learned per answer richness tier
+    @GetMapping("/tokens")
+    public ResponseEntity<?> getTokenStats() {
+        return ResponseEntity.ok(maxTokensPolicy.stats());
+    }
+
+    // GET /api/stats/threads - Execution mode and JVM thread counts. Virtual threads are not
+    // included in these counts, only platform threads (carriers included).
+    @GetMapping("/threads")
+    public ResponseEntity<?> getThreadStats() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        HashMap<String, Object> stats = new HashMap<>();
+        stats.put("mode", threadsMode);
+        stats.put("javaVersion", Runtime.version().toString());
+        stats.put("virtualThreadsSupported", VirtualThreads.isSupported());
+        stats.put("liveThreads", threads.getThreadCount());
+        stats.put("peakThreads", threads.getPeakThreadCount());
+        stats.put("daemonThreads", threads.getDaemonThreadCount());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -1,106 +1,405 @@
 package com.example.jobsuggestions.controller;
 
+import com.example.jobsuggestions.config.CorrelationId;
+import com.example.jobsuggestions.model.CurrentUser;
 import com.example.jobsuggestions.model.Suggestion;
+import com.example.jobsuggestions.model.SuggestionBatchRequest;
+import com.example.jobsuggestions.model.SuggestionListVersion;
+import com.example.jobsuggestions.model.SuggestionJob;
 import com.example.jobsuggestions.model.SuggestionRequest;
-import com.example.jobsuggestions.model.User;
-import com.example.jobsuggestions.repository.UserRepository;
+import com.example.jobsuggestions.model.SuggestionSummary;
+import com.example.jobsuggestions.service.AiUnavailableException;
+import com.example.jobsuggestions.service.LocalSuggestionEngine;
+import com.example.jobsuggestions.service.PromptBudgetExceededException;
+import com.example.jobsuggestions.service.SuggestionBatchService;
+import com.example.jobsuggestions.service.SuggestionJobService;
+import com.example.jobsuggestions.service.SuggestionPayloadCache;
 import com.example.jobsuggestions.service.SuggestionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
 public class SuggestionController {
 
+    private static final Logger log = LoggerFactory.getLogger(SuggestionController.class);
+
+    private static final long STREAM_TIMEOUT_MS = 60_000L;
+    private static final long BATCH_TIMEOUT_MS = 15 * 60_000L;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int PREVIEW_SIZE = 5;
+    private static final int MAX_BULK_DELETE = 1000;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Part of every ETag; bump it when the JSON of the list or detail responses changes shape,
+    // so clients holding a tag from the old representation get the new one
+    private static final String REPRESENTATION = "r1";
+    // Clients may keep responses but must revalidate them (If-None-Match) before every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
     @Autowired
     private SuggestionService suggestionService;
 
     @Autowired
-    private UserRepository userRepository;
+    private SuggestionJobService suggestionJobService;
 
-    private User getCurrentUser(HttpSession session) {
-        if (session == null) {
-            return null;
+    @Autowired
+    private SuggestionBatchService suggestionBatchService;
+
+    @Autowired
+    private LocalSuggestionEngine localSuggestionEngine;
+
+    @Autowired
+    private SuggestionPayloadCache suggestionPayloadCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Response builders are static and package-private so the JMH benchmarks serialize the real shapes
+    static HashMap<String, Object> toResponse(Suggestion suggestion) {
+        HashMap<String, Object> item = new HashMap<>();
+        item.put("userId", suggestion.getUserId());
+        item.put("entryNumber", suggestion.getEntryNumber()); // User-specific entry number (this is the ID)
+        item.put("id", suggestion.getEntryNumber()); // For backward compatibility, entryNumber is the ID
+        item.put("answers", suggestion.getAnswers());
+        item.put("suggestions", suggestion.getSuggestions());
+        item.put("externalApiData", suggestion.getExternalApiData());
+        item.put("createdAt", suggestion.getCreatedAt());
+        item.put("promptVersion", suggestion.getPromptVersion());
+        return item;
+    }
+
+    static HashMap<String, Object> toSummaryResponse(SuggestionSummary summary) {
+        HashMap<String, Object> item = new HashMap<>();
+        item.put("userId", summary.userId());
+        item.put("entryNumber", summary.entryNumber());
+        item.put("id", summary.entryNumber()); // For backward compatibility, entryNumber is the ID
+        item.put("createdAt", summary.createdAt());
+        item.put("headline", toHeadline(summary.headline()));
+        return item;
+    }
+
+    // Collapses the line breaks of the AI text's opening so it reads as one line
+    private static String toHeadline(String snippet) {
+        if (snippet == null) {
+            return "";
         }
-        
-        Long userId = (Long) session.getAttribute("userId");
-        if (userId == null) {
-            return null;
+        String headline = WHITESPACE.matcher(snippet.strip()).replaceAll(" ");
+        return snippet.length() >= SuggestionSummary.HEADLINE_LENGTH ? headline + "..." : headline;
+    }
+
+    private HashMap<String, Object> toJobResponse(SuggestionJob job) {
+        HashMap<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus());
+        response.put("statusUrl", "/api/suggestions/jobs/" + job.getId());
+        response.put("createdAt", job.getCreatedAt());
+        response.put("completedAt", job.getCompletedAt());
+        if (job.getResult() != null) {
+            response.put("result", toResponse(job.getResult()));
+        }
+        if (job.getError() != null) {
+            response.put("error", job.getError());
         }
-        return userRepository.findById(userId).orElse(null);
+        return response;
     }
 
     // GET /api/suggestions - Get all suggestions for current user
+    // Passing limit and/or after switches to keyset pagination: {"items": [...], "nextCursor": "..."}
     @GetMapping("/suggestions")
-    public ResponseEntity<?> getAllSuggestions(HttpSession session) {
-        User user = getCurrentUser(session);
+    public ResponseEntity<StreamingResponseBody> getAllSuggestions(@RequestParam(required = false) String after,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   CurrentUser user,
+                                                                   ServletWebRequest webRequest) {
+        boolean paged = after != null || limit != null;
         if (user == null) {
             // Return empty list - user can access page, so just return empty
-            return ResponseEntity.ok(new ArrayList<>());
+            if (paged) {
+                HashMap<String, Object> emptyPage = new HashMap<>();
+                emptyPage.put("items", new ArrayList<>());
+                emptyPage.put("nextCursor", null);
+                return streamJson(HttpStatus.OK, null, false, generator -> generator.writeObject(emptyPage));
+            }
+            return streamJson(HttpStatus.OK, null, false, generator -> generator.writeObject(new ArrayList<>()));
         }
 
-        List<Suggestion> suggestions = suggestionService.getAllSuggestionsByUser(user);
-        
-        // Return suggestions with user-specific entry numbers from database
-        List<HashMap<String, Object>> response = new ArrayList<>();
-        for (Suggestion suggestion : suggestions) {
-            HashMap<String, Object> item = new HashMap<>();
-            item.put("userId", suggestion.getUserId());
-            item.put("entryNumber", suggestion.getEntryNumber()); // User-specific entry number (this is the ID)
-            item.put("id", suggestion.getEntryNumber()); // For backward compatibility, entryNumber is the ID
-            item.put("answers", suggestion.getAnswers());
-            item.put("suggestions", suggestion.getSuggestions());
-            item.put("externalApiData", suggestion.getExternalApiData());
-            item.put("createdAt", suggestion.getCreatedAt());
-            response.add(item);
+        // If-None-Match is answered from the aggregate version before anything is loaded. Every
+        // page's content follows from the same history, so the list and its pages share the tag.
+        boolean gzip = acceptsGzip(webRequest);
+        String etag = forEncoding(listEtag(user.id(), suggestionService.getListVersion(user.id())), gzip);
+
+        if (paged) {
+            return getSuggestionPage(user, after, limit, etag, gzip, webRequest);
+        }
+
+        if (checkNotModified(webRequest, etag)) {
+            return null;
+        }
+
+        // The list only carries summaries; full content is on GET /api/suggestions/{entryNumber}.
+        // Each one is written as its row arrives, so memory does not grow with the history.
+        return streamJson(HttpStatus.OK, REVALIDATE, gzip, generator -> {
+            generator.writeStartArray();
+            suggestionService.forEachSummary(user.id(), summary -> {
+                try {
+                    generator.writeObject(toSummaryResponse(summary));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        });
+    }
+
+    private ResponseEntity<StreamingResponseBody> getSuggestionPage(CurrentUser user, String after, Integer limit,
+                                                                    String etag, boolean gzip,
+                                                                    ServletWebRequest webRequest) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "limit must be between 1 and " + MAX_PAGE_SIZE);
+            return streamJson(HttpStatus.BAD_REQUEST, null, false, generator -> generator.writeObject(error));
+        }
+
+        Integer afterEntryNumber = decodeCursor(after);
+        if (afterEntryNumber == null) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "Invalid cursor");
+            return streamJson(HttpStatus.BAD_REQUEST, null, false, generator -> generator.writeObject(error));
+        }
+
+        if (checkNotModified(webRequest, etag)) {
+            return null;
+        }
+
+        // One extra row tells us whether another page exists without a COUNT query
+        List<SuggestionSummary> rows = suggestionService.getSuggestionSummariesAfter(user.id(), afterEntryNumber, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<SuggestionSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<HashMap<String, Object>> items = new ArrayList<>();
+        for (SuggestionSummary summary : page) {
+            items.add(toSummaryResponse(summary));
+        }
+
+        HashMap<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        response.put("nextCursor", hasMore ? encodeCursor(page.get(page.size() - 1).entryNumber()) : null);
+        return streamJson(HttpStatus.OK, REVALIDATE, gzip, generator -> generator.writeObject(response));
+    }
+
+    // Strong ETags: the same tag always means byte-identical JSON for that URL
+    private static String listEtag(Long userId, SuggestionListVersion version) {
+        return "\"" + REPRESENTATION + "-list-" + userId + "-" + version.count() + "-"
+                + version.maxEntryNumber() + "-" + version.versionSum() + "\"";
+    }
+
+    private static String suggestionEtag(Long userId, Integer entryNumber, Long version) {
+        return "\"" + REPRESENTATION + "-" + userId + "-" + entryNumber + "-" + version + "\"";
+    }
+
+    // Tomcat's compression (server.compression) skips responses with a strong ETag, so the
+    // endpoints that send one gzip their own JSON. The gzip bytes are a different representation
+    // and get their own tag.
+    private static boolean acceptsGzip(WebRequest webRequest) {
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static String forEncoding(String etag, boolean gzip) {
+        return gzip ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+    }
+
+    // The 304 carries Vary too, so caches keep the plain and gzip variants apart
+    private static boolean checkNotModified(ServletWebRequest webRequest, String etag) {
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return webRequest.checkNotModified(etag);
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void writeTo(JsonGenerator generator) throws IOException;
+    }
+
+    // JSON written straight to the response (gzip-compressed when asked) by Spring MVC's async
+    // executor once the handler has returned. Streaming responses keep the headers already on the
+    // servlet response and add these, so ETag and Vary are left to checkNotModified.
+    private ResponseEntity<StreamingResponseBody> streamJson(HttpStatus status, CacheControl cacheControl, boolean gzip,
+                                                             JsonWriter writer) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON);
+        if (cacheControl != null) {
+            response.cacheControl(cacheControl);
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(outputStream -> {
+            GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE) : null;
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(gzip ? gzipStream : outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                writer.writeTo(generator);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+        });
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 3 + 64);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed, GZIP_BUFFER_SIZE)) {
+            gzipStream.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    // Cursors are opaque to clients: base64url of the last entry number on the page.
+    // An absent cursor starts from the beginning; a malformed one decodes to null.
+    private static String encodeCursor(Integer entryNumber) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("e:" + entryNumber).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Integer decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("e:")) {
+                return null;
+            }
+            int entryNumber = Integer.parseInt(decoded.substring(2));
+            return entryNumber >= 0 ? entryNumber : null;
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        
-        return ResponseEntity.ok(response);
     }
 
     // GET /api/suggestions/{entryNumber} - Get a specific suggestion by entry number
     @GetMapping("/suggestions/{entryNumber}")
-    public ResponseEntity<?> getSuggestionByEntryNumber(@PathVariable Integer entryNumber, HttpSession session) {
-        User user = getCurrentUser(session);
-        
+    public ResponseEntity<?> getSuggestionByEntryNumber(@PathVariable Integer entryNumber, CurrentUser user,
+                                                        ServletWebRequest webRequest) {
         if (user == null) {
             HashMap<String, String> error = new HashMap<>();
             error.put("error", "Authentication required");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
         }
-        
-        Suggestion suggestion = suggestionService.getSuggestionById(user.getId(), entryNumber);
-        
-        if (suggestion == null) {
-            HashMap<String, String> error = new HashMap<>();
-            error.put("error", "Suggestion not found with entry number: " + entryNumber);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+
+        // The version comes from the index alone. It answers If-None-Match and finds the encoded
+        // JSON in the payload cache; the row is only loaded when neither has it.
+        boolean gzip = acceptsGzip(webRequest);
+        Long version = suggestionService.getSuggestionVersion(user.id(), entryNumber);
+        if (version == null) {
+            return suggestionNotFound(entryNumber);
+        }
+        if (checkNotModified(webRequest, forEncoding(suggestionEtag(user.id(), entryNumber, version), gzip))) {
+            return null;
         }
 
-        // Return response without user to avoid lazy loading issues
-        HashMap<String, Object> response = new HashMap<>();
-        response.put("userId", suggestion.getUserId());
-        response.put("entryNumber", suggestion.getEntryNumber()); // User-specific entry number (this is the ID)
-        response.put("id", suggestion.getEntryNumber()); // For backward compatibility, entryNumber is the ID
-        response.put("answers", suggestion.getAnswers());
-        response.put("suggestions", suggestion.getSuggestions());
-        response.put("externalApiData", suggestion.getExternalApiData());
-        response.put("createdAt", suggestion.getCreatedAt());
-        
-        return ResponseEntity.ok(response);
+        SuggestionPayloadCache.Payload payload = suggestionPayloadCache.get(user.id(), entryNumber, version);
+        if (payload == null) {
+            Suggestion suggestion = suggestionService.getSuggestionById(user.id(), entryNumber);
+            if (suggestion == null) {
+                // Deleted since the version was read
+                return suggestionNotFound(entryNumber);
+            }
+            version = suggestion.getVersion();
+            payload = encodePayload(suggestion);
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(forEncoding(suggestionEtag(user.id(), entryNumber, version), gzip))
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (!gzip) {
+            return builder.body(payload.json());
+        }
+        if (payload.gzip() == null) {
+            payload = payload.withGzip(gzip(payload.json()));
+            suggestionPayloadCache.put(user.id(), entryNumber, version, payload);
+        }
+        return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+    }
+
+    private static ResponseEntity<?> suggestionNotFound(Integer entryNumber) {
+        HashMap<String, String> error = new HashMap<>();
+        error.put("error", "Suggestion not found with entry number: " + entryNumber);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    // Serializes a suggestion as GET /api/suggestions/{entryNumber} returns it and caches the
+    // bytes under its version. Create and update call this too, so the first read is a hit.
+    private SuggestionPayloadCache.Payload encodePayload(Suggestion suggestion) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(toResponse(suggestion));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        SuggestionPayloadCache.Payload payload = new SuggestionPayloadCache.Payload(json, null);
+        suggestionPayloadCache.put(suggestion.getUserId(), suggestion.getEntryNumber(), suggestion.getVersion(), payload);
+        return payload;
     }
 
     // POST /api/suggestions - Create a new suggestion
+    // With ?async=true the AI call runs in the background and a 202 with a job handle is returned
     @PostMapping("/suggestions")
-    public ResponseEntity<?> createSuggestion(@RequestBody SuggestionRequest request, HttpSession session) {
+    public ResponseEntity<?> createSuggestion(@RequestBody SuggestionRequest request,
+                                              @RequestParam(defaultValue = "false") boolean async,
+                                              CurrentUser user,
+                                              HttpSession session) {
         try {
             if (request.getAnswers() == null || request.getAnswers().isEmpty()) {
                 HashMap<String, String> error = new HashMap<>();
@@ -108,9 +407,6 @@ public class SuggestionController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
-            // Get user from session
-            User user = getCurrentUser(session);
-            
             // If no user, session expired - extend it and return error
             if (user == null) {
                 if (session != null) {
@@ -121,46 +417,255 @@ public class SuggestionController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
 
-            Suggestion created = suggestionService.createSuggestion(user, request.getAnswers());
+            if (async) {
+                SuggestionJob job = suggestionJobService.submit(user.id(), request.getAnswers());
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .location(URI.create("/api/suggestions/jobs/" + job.getId()))
+                        .body(toJobResponse(job));
+            }
+
+            Suggestion created = suggestionService.createSuggestion(user.id(), request.getAnswers());
             
             // Return response without user to avoid lazy loading issues
-            HashMap<String, Object> response = new HashMap<>();
-            response.put("userId", created.getUserId());
-            response.put("entryNumber", created.getEntryNumber()); // User-specific entry number (this is the ID)
-            response.put("id", created.getEntryNumber()); // For backward compatibility, entryNumber is the ID
-            response.put("answers", created.getAnswers());
-            response.put("suggestions", created.getSuggestions());
-            response.put("externalApiData", created.getExternalApiData());
-            response.put("createdAt", created.getCreatedAt());
-            
-            // Also set user relationship for the created object
-            created.setUser(user);
-            
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(encodePayload(created).json());
+        } catch (PromptBudgetExceededException e) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (AiUnavailableException e) {
+            return aiUnavailable(e);
         } catch (Exception e) {
             HashMap<String, String> error = new HashMap<>();
             error.put("error", "AI generation failed: " + e.getMessage());
-            System.err.println("Error creating suggestion: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating suggestion", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
 
+    // POST /api/suggestions/batch - Generate suggestions for up to 100 answer sets at once
+    // Streams NDJSON: one line per item as it is saved or fails, in completion order, then a summary
+    //   {"index":0,"status":"created","suggestion":{...}}
+    //   {"index":1,"status":"failed","error":"..."}
+    //   {"status":"done","created":1,"failed":1}
+    @PostMapping("/suggestions/batch")
+    public ResponseEntity<ResponseBodyEmitter> createSuggestionBatch(@RequestBody SuggestionBatchRequest request,
+                                                                     CurrentUser user) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(BATCH_TIMEOUT_MS);
+        List<Map<String, String>> items = request.getItems();
+
+        if (user == null) {
+            sendErrorLineAndComplete(emitter, "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+        }
+
+        if (items == null || items.isEmpty()) {
+            sendErrorLineAndComplete(emitter, "Items cannot be empty");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            sendErrorLineAndComplete(emitter, "At most " + MAX_BATCH_SIZE + " items can be generated at once");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+        }
+
+        int[] counts = new int[2];
+        suggestionBatchService.submit(user.id(), items, outcome -> {
+                    HashMap<String, Object> line = new HashMap<>();
+                    line.put("index", outcome.index());
+                    if (outcome.succeeded()) {
+                        counts[0]++;
+                        line.put("status", "created");
+                        line.put("suggestion", toResponse(outcome.saved()));
+                    } else {
+                        counts[1]++;
+                        line.put("status", "failed");
+                        line.put("error", outcome.error());
+                    }
+                    sendLine(emitter, line);
+                })
+                .whenComplete(CorrelationId.wrapCompletion((done, error) -> {
+                    if (error != null) {
+                        emitter.completeWithError(error);
+                        return;
+                    }
+                    HashMap<String, Object> summary = new HashMap<>();
+                    summary.put("status", "done");
+                    summary.put("created", counts[0]);
+                    summary.put("failed", counts[1]);
+                    try {
+                        sendLine(emitter, summary);
+                        emitter.complete();
+                    } catch (UncheckedIOException e) {
+                        emitter.completeWithError(e.getCause());
+                    }
+                }));
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    private void sendErrorLineAndComplete(ResponseBodyEmitter emitter, String message) {
+        HashMap<String, Object> line = new HashMap<>();
+        line.put("error", message);
+        try {
+            sendLine(emitter, line);
+            emitter.complete();
+        } catch (UncheckedIOException e) {
+            emitter.completeWithError(e.getCause());
+        }
+    }
+
+    private void sendLine(ResponseBodyEmitter emitter, Map<String, Object> line) {
+        try {
+            emitter.send(objectMapper.writeValueAsString(line) + "\n", MediaType.TEXT_PLAIN);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            // Client went away - the batch stops starting new generations
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // POST /api/suggestions/preview - Instant preview from the local rule-based engine
+    // Nothing is saved and no AI call is made; the full AI suggestion is still a POST /api/suggestions away
+    @PostMapping("/suggestions/preview")
+    public ResponseEntity<?> previewSuggestion(@RequestBody SuggestionRequest request, CurrentUser user) {
+        if (user == null) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        }
+
+        if (request.getAnswers() == null || request.getAnswers().isEmpty()) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "Answers cannot be empty");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+
+        long start = System.nanoTime();
+        List<LocalSuggestionEngine.Match> matches = localSuggestionEngine.rank(request.getAnswers(), PREVIEW_SIZE);
+        String suggestions = localSuggestionEngine.render(matches, request.getAnswers().get("location"));
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+
+        List<HashMap<String, Object>> ranked = new ArrayList<>();
+        for (LocalSuggestionEngine.Match match : matches) {
+            HashMap<String, Object> item = new HashMap<>();
+            item.put("title", match.title());
+            item.put("score", match.score());
+            ranked.add(item);
+        }
+
+        HashMap<String, Object> response = new HashMap<>();
+        response.put("suggestions", suggestions);
+        response.put("matches", ranked);
+        response.put("engine", LocalSuggestionEngine.VERSION);
+        response.put("elapsedMicros", elapsedMicros);
+        return ResponseEntity.ok(response);
+    }
+
+    // GET /api/suggestions/jobs/{jobId} - Poll the status of an async generation job
+    @GetMapping("/suggestions/jobs/{jobId}")
+    public ResponseEntity<?> getSuggestionJob(@PathVariable String jobId, CurrentUser user) {
+        if (user == null) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        }
+
+        SuggestionJob job = suggestionJobService.getJob(jobId, user.id());
+
+        if (job == null) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "Job not found: " + jobId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+
+        return ResponseEntity.ok(toJobResponse(job));
+    }
+
+    // GET/POST /api/suggestions/stream - Stream AI suggestions as Server-Sent Events
+    // Emits "delta" events as tokens arrive, then "done" with the saved suggestion (or "error").
+    // GET takes the answers as query parameters so it can be used from a browser EventSource.
+    @RequestMapping(value = "/suggestions/stream", method = {RequestMethod.GET, RequestMethod.POST},
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSuggestion(@RequestBody(required = false) SuggestionRequest request,
+                                                       @RequestParam Map<String, String> queryAnswers,
+                                                       CurrentUser user) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        Map<String, String> answers = request != null && request.getAnswers() != null ? request.getAnswers() : queryAnswers;
+
+        if (user == null) {
+            sendErrorAndComplete(emitter, "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(emitter);
+        }
+
+        if (answers == null || answers.isEmpty()) {
+            sendErrorAndComplete(emitter, "Answers cannot be empty");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(emitter);
+        }
+
+        suggestionService.streamWithFallback(answers, delta -> {
+                    try {
+                        emitter.send(SseEmitter.event().name("delta")
+                                .data(Map.of("content", delta), MediaType.APPLICATION_JSON));
+                    } catch (IOException e) {
+                        // Client went away - abort reading the upstream stream
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .thenApply(CorrelationId.wrap(suggestions -> suggestionService.saveSuggestion(user.id(), answers, suggestions)))
+                .whenComplete(CorrelationId.wrapCompletion((saved, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        log.warn("Error streaming suggestion: {}", cause.getMessage());
+                        sendErrorAndComplete(emitter, "AI generation failed: " + cause.getMessage());
+                        return;
+                    }
+                    try {
+                        emitter.send(SseEmitter.event().name("done")
+                                .data(toResponse(saved), MediaType.APPLICATION_JSON));
+                        emitter.complete();
+                    } catch (IOException e) {
+                        emitter.completeWithError(e);
+                    }
+                }));
+
+        return ResponseEntity.ok(emitter);
+    }
+
+    // 503 with Retry-After when the AI call was shed by the circuit breaker or bulkhead
+    private static ResponseEntity<?> aiUnavailable(AiUnavailableException e) {
+        HashMap<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    private void sendErrorAndComplete(SseEmitter emitter, String message) {
+        try {
+            emitter.send(SseEmitter.event().name("error")
+                    .data(Map.of("error", message), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
     // PUT /api/suggestions/{entryNumber} - Update a suggestion
     @PutMapping("/suggestions/{entryNumber}")
-    public ResponseEntity<?> updateSuggestion(@PathVariable Integer entryNumber, @RequestBody SuggestionRequest request, HttpSession session) {
+    public ResponseEntity<?> updateSuggestion(@PathVariable Integer entryNumber, @RequestBody SuggestionRequest request, CurrentUser user) {
         try {
-            User user = getCurrentUser(session);
-            
             if (user == null) {
                 HashMap<String, String> error = new HashMap<>();
                 error.put("error", "Authentication required");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
             
-            Suggestion existing = suggestionService.getSuggestionById(user.getId(), entryNumber);
+            // Only the version is read up front; the row is loaded once the AI text is ready
+            Long version = suggestionService.getSuggestionVersion(user.id(), entryNumber);
             
-            if (existing == null) {
+            if (version == null) {
                 HashMap<String, String> error = new HashMap<>();
                 error.put("error", "Suggestion not found");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
@@ -172,19 +677,22 @@ public class SuggestionController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
-            Suggestion updated = suggestionService.updateSuggestion(user.getId(), entryNumber, request.getAnswers());
+            Suggestion updated = suggestionService.updateSuggestion(user.id(), entryNumber, version, request.getAnswers());
             
-            // Return response without user to avoid lazy loading issues
-            HashMap<String, Object> response = new HashMap<>();
-            response.put("userId", updated.getUserId());
-            response.put("entryNumber", updated.getEntryNumber()); // User-specific entry number (this is the ID)
-            response.put("id", updated.getEntryNumber()); // For backward compatibility, entryNumber is the ID
-            response.put("answers", updated.getAnswers());
-            response.put("suggestions", updated.getSuggestions());
-            response.put("externalApiData", updated.getExternalApiData());
-            response.put("createdAt", updated.getCreatedAt());
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(encodePayload(updated).json());
+        } catch (OptimisticLockingFailureException e) {
+            // Changed or deleted by another request while the AI text was being generated
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "Suggestion was modified concurrently, please retry");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (PromptBudgetExceededException e) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (AiUnavailableException e) {
+            return aiUnavailable(e);
         } catch (Exception e) {
             HashMap<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -192,18 +700,56 @@ public class SuggestionController {
         }
     }
 
+    // DELETE /api/suggestions?entryNumbers=1,2,3 or ?all=true - Delete several suggestions, or the
+    // whole history, in one transaction. Returns {"deleted": n}; unknown entry numbers are skipped.
+    @DeleteMapping("/suggestions")
+    public ResponseEntity<?> deleteSuggestions(@RequestParam(required = false) List<Integer> entryNumbers,
+                                               @RequestParam(defaultValue = "false") boolean all,
+                                               CurrentUser user) {
+        if (user == null) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "Authentication required");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        }
+
+        LinkedHashSet<Integer> requested = new LinkedHashSet<>();
+        if (entryNumbers != null) {
+            for (Integer entryNumber : entryNumbers) {
+                if (entryNumber != null) {
+                    requested.add(entryNumber);
+                }
+            }
+        }
+        if (all == !requested.isEmpty()) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "Pass either entryNumbers or all=true");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        if (requested.size() > MAX_BULK_DELETE) {
+            HashMap<String, String> error = new HashMap<>();
+            error.put("error", "At most " + MAX_BULK_DELETE + " entry numbers can be deleted at once");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+
+        int deleted = all
+                ? suggestionService.deleteAllSuggestions(user.id())
+                : suggestionService.deleteSuggestions(user.id(), requested);
+
+        HashMap<String, Object> response = new HashMap<>();
+        response.put("deleted", deleted);
+        return ResponseEntity.ok(response);
+    }
+
     // DELETE /api/suggestions/{entryNumber} - Delete a suggestion
     @DeleteMapping("/suggestions/{entryNumber}")
-    public ResponseEntity<?> deleteSuggestion(@PathVariable Integer entryNumber, HttpSession session) {
-        User user = getCurrentUser(session);
-        
+    public ResponseEntity<?> deleteSuggestion(@PathVariable Integer entryNumber, CurrentUser user) {
         if (user == null) {
             HashMap<String, String> error = new HashMap<>();
             error.put("error", "Authentication required");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
         }
 
-        boolean deleted = suggestionService.deleteSuggestion(user.getId(), entryNumber);
+        boolean deleted = suggestionService.deleteSuggestion(user.id(), entryNumber);
         
         if (deleted) {
             HashMap<String, String> message = new HashMap<>();
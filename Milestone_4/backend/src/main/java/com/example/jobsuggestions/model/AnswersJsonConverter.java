@@ -0,0 +1,43 @@
+package com.example.jobsuggestions.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Stores a suggestion's survey answers as one JSON document in the suggestions row
+@Converter
+public class AnswersJsonConverter implements AttributeConverter<Map<String, String>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(Map<String, String> answers) {
+        if (answers == null) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(answers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize answers", e);
+        }
+    }
+
+    @Override
+    public Map<String, String> convertToEntityAttribute(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(json, MAP_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not parse stored answers", e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.jobsuggestions.model;
+
+// The logged-in user as stored in the session at login/registration. Controllers receive it
+// as a handler argument (see CurrentUserArgumentResolver), so no users row is loaded per request.
+public record CurrentUser(Long id, String username) {
+}
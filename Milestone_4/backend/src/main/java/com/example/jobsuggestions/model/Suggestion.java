@@ -2,13 +2,24 @@ package com.example.jobsuggestions.model;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
 @Entity
-@Table(name = "suggestions")
+// Hibernate orders the composite primary key as (entry_number, user_id), which cannot serve
+// per-user lookups, so (user_id, entry_number) gets its own index. It also carries version so
+// the ETag version queries are answered from the index without reading the rows.
+@Table(name = "suggestions", indexes = {
+    @Index(name = "idx_suggestions_user_entry", columnList = "user_id, entry_number, version")
+})
 @IdClass(SuggestionId.class)
+// Second-level cached by id (region "suggestions", see application.conf). JPQL bulk deletes
+// drop the whole region, and updates replace the entry when their transaction commits.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "suggestions")
 public class Suggestion {
     @Id
     @Column(name = "user_id")
@@ -18,14 +29,23 @@ public class Suggestion {
     @Column(name = "entry_number")
     private Integer entryNumber; // User-specific entry number (1, 2, 3, etc. per user) - part of composite primary key
     
-    @ElementCollection
+    // Answers live in a single JSON column so loading a suggestion needs no extra query
+    @Convert(converter = AnswersJsonConverter.class)
+    @Column(name = "answers_json", columnDefinition = "TEXT")
+    private Map<String, String> answers;
+    
+    // Legacy one-row-per-answer storage. Only read for rows not yet migrated to answers_json
+    // (see AnswersStorageMigration), or written when suggestions.answers.storage=table.
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "suggestion-answers")
     @CollectionTable(name = "suggestion_answers", joinColumns = {
         @JoinColumn(name = "user_id", referencedColumnName = "user_id"),
         @JoinColumn(name = "entry_number", referencedColumnName = "entry_number")
     })
     @MapKeyColumn(name = "answer_key")
     @Column(name = "answer_value")
-    private Map<String, String> answers = new HashMap<>();
+    @JsonIgnore
+    private Map<String, String> legacyAnswers = new HashMap<>();
     
     @Column(columnDefinition = "TEXT")
     private String suggestions;
@@ -35,6 +55,23 @@ public class Suggestion {
     
     @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    // Id of the PromptTemplate that generated the suggestions text (null for older rows)
+    @Column(name = "prompt_version", length = 32)
+    private String promptVersion;
+
+    // Token usage reported by the AI provider for the generation that produced the text;
+    // null when the text came from the cache or the local engine
+    @Column(name = "prompt_tokens")
+    private Integer promptTokens;
+
+    @Column(name = "completion_tokens")
+    private Integer completionTokens;
+
+    // Bumped by Hibernate on every update: guards against lost updates and is the suggestion's ETag
+    @Version
+    @Column(name = "version")
+    private Long version;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, insertable = false, updatable = false)
@@ -61,6 +98,15 @@ public class Suggestion {
         this.entryNumber = entryNumber;
         this.createdAt = LocalDateTime.now();
     }
+
+    // user_id is written from userId (the association is read-only), so saving needs no User entity
+    public Suggestion(Map<String, String> answers, String suggestions, Long userId, Integer entryNumber) {
+        this.answers = answers;
+        this.suggestions = suggestions;
+        this.userId = userId;
+        this.entryNumber = entryNumber;
+        this.createdAt = LocalDateTime.now();
+    }
     
     // Convenience method to get composite ID
     public SuggestionId getId() {
@@ -76,13 +122,21 @@ public class Suggestion {
     }
 
     public Map<String, String> getAnswers() {
-        return answers;
+        return answers != null ? answers : legacyAnswers;
     }
 
+    // Leftover legacy rows are simply shadowed once the JSON column is set
     public void setAnswers(Map<String, String> answers) {
         this.answers = answers;
     }
 
+    // Writes the answers to the legacy suggestion_answers table instead of the JSON column
+    public void setAnswersInTable(Map<String, String> answers) {
+        this.answers = null;
+        this.legacyAnswers.clear();
+        this.legacyAnswers.putAll(answers);
+    }
+
     public String getSuggestions() {
         return suggestions;
     }
@@ -118,5 +172,32 @@ public class Suggestion {
     public void setEntryNumber(Integer entryNumber) {
         this.entryNumber = entryNumber;
     }
-}
 
+    public String getPromptVersion() {
+        return promptVersion;
+    }
+
+    public void setPromptVersion(String promptVersion) {
+        this.promptVersion = promptVersion;
+    }
+
+    public Integer getPromptTokens() {
+        return promptTokens;
+    }
+
+    public void setPromptTokens(Integer promptTokens) {
+        this.promptTokens = promptTokens;
+    }
+
+    public Integer getCompletionTokens() {
+        return completionTokens;
+    }
+
+    public void setCompletionTokens(Integer completionTokens) {
+        this.completionTokens = completionTokens;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
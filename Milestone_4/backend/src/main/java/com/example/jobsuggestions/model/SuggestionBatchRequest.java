@@ -0,0 +1,17 @@
+package com.example.jobsuggestions.model;
+
+import java.util.List;
+import java.util.Map;
+
+// Body of POST /api/suggestions/batch: one answer map per suggestion to generate
+public class SuggestionBatchRequest {
+    private List<Map<String, String>> items;
+
+    public List<Map<String, String>> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Map<String, String>> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.jobsuggestions.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// In-memory handle for an asynchronous AI generation. Not persisted - once the job
+// completes, the resulting Suggestion is stored like any other entry.
+public class SuggestionJob {
+
+    public enum Status {
+        PENDING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final Long userId;
+    private final LocalDateTime createdAt;
+    private volatile Status status;
+    private volatile Suggestion result;
+    private volatile String error;
+    private volatile LocalDateTime completedAt;
+
+    public SuggestionJob(Long userId) {
+        this.id = UUID.randomUUID().toString();
+        this.userId = userId;
+        this.createdAt = LocalDateTime.now();
+        this.status = Status.PENDING;
+    }
+
+    // A job finishes once: whichever of complete, fail and expire comes first wins
+    public synchronized void complete(Suggestion result) {
+        if (isFinished()) {
+            return;
+        }
+        this.result = result;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    public synchronized void fail(String error) {
+        if (isFinished()) {
+            return;
+        }
+        this.error = error;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    // Fails a job that is still PENDING after the cutoff; returns whether it did
+    public synchronized boolean expireIfPendingSince(LocalDateTime cutoff, String error) {
+        if (isFinished() || !createdAt.isBefore(cutoff)) {
+            return false;
+        }
+        fail(error);
+        return true;
+    }
+
+    public boolean isFinished() {
+        return status != Status.PENDING;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Suggestion getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+}
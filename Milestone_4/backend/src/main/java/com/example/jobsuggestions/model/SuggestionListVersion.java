@@ -0,0 +1,7 @@
+package com.example.jobsuggestions.model;
+
+// Aggregate over a user's suggestions that changes whenever their history list does: a create
+// raises maxEntryNumber (entry numbers are never reused), a delete lowers count, and an update
+// raises versionSum. Computed from the (user_id, entry_number, version) index alone.
+public record SuggestionListVersion(long count, Integer maxEntryNumber, Long versionSum) {
+}
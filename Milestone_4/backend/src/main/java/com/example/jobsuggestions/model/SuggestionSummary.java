@@ -0,0 +1,11 @@
+package com.example.jobsuggestions.model;
+
+import java.time.LocalDateTime;
+
+// Row shape for the history list: just enough to render an entry without loading the
+// full AI text, the external API metadata or the answers. The headline is the start of
+// the suggestion text, cut down in the query itself.
+public record SuggestionSummary(Long userId, Integer entryNumber, LocalDateTime createdAt, String headline) {
+
+    public static final int HEADLINE_LENGTH = 160;
+}
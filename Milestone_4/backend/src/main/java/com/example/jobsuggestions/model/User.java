@@ -1,22 +1,37 @@
 package com.example.jobsuggestions.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+// The unique constraint's index serves findByUsername / existsByUsername
+@Table(name = "users", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_users_username", columnNames = "username")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String username;
 
     @Column(nullable = false)
     private String password;
 
+    // Last entry number handed out to this user's suggestions (see EntryNumberAllocator). Only
+    // the allocator's native UPDATE changes it, which bypasses the second-level cache, so the
+    // value on a loaded User may be stale: it is never written back, and the allocator reads
+    // the column itself.
+    @Column(name = "entry_sequence", nullable = false, updatable = false)
+    private int entrySequence = 0;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Suggestion> suggestions = new ArrayList<>();
 
@@ -52,6 +67,14 @@ public class User {
         this.password = password;
     }
 
+    public int getEntrySequence() {
+        return entrySequence;
+    }
+
+    public void setEntrySequence(int entrySequence) {
+        this.entrySequence = entrySequence;
+    }
+
     public List<Suggestion> getSuggestions() {
         return suggestions;
     }
@@ -2,17 +2,74 @@ package com.example.jobsuggestions.repository;
 
 import com.example.jobsuggestions.model.Suggestion;
 import com.example.jobsuggestions.model.SuggestionId;
+import com.example.jobsuggestions.model.SuggestionListVersion;
+import com.example.jobsuggestions.model.SuggestionSummary;
 import com.example.jobsuggestions.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface SuggestionRepository extends JpaRepository<Suggestion, SuggestionId> {
+public interface SuggestionRepository extends JpaRepository<Suggestion, SuggestionId>, SuggestionRepositoryCustom {
+
+    int SUMMARY_FETCH_SIZE = 500;
+
     List<Suggestion> findByUserOrderByEntryNumberAsc(User user);
     List<Suggestion> findByUserIdOrderByEntryNumberAsc(Long userId);
     Optional<Suggestion> findByUserIdAndEntryNumber(Long userId, Integer entryNumber);
-}
 
+    // Summary projections for the history list - only the columns the list renders, with the
+    // headline cut from the suggestion text in the database. Ordering by userId as well (a
+    // no-op, it is fixed) lets the planner match the order to idx_suggestions_user_entry and
+    // read a keyset page straight from the index instead of sorting the user's whole history.
+    @Query("select new com.example.jobsuggestions.model.SuggestionSummary(" +
+           "s.userId, s.entryNumber, s.createdAt, substring(s.suggestions, 1, " + SuggestionSummary.HEADLINE_LENGTH + ")) " +
+           "from Suggestion s where s.userId = :userId order by s.userId asc, s.entryNumber asc")
+    List<SuggestionSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    // Same rows as findSummariesByUserId, read through a cursor in fetch-size batches instead of
+    // collected into a list. Must be consumed (and closed) inside a transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + SUMMARY_FETCH_SIZE))
+    @Query("select new com.example.jobsuggestions.model.SuggestionSummary(" +
+           "s.userId, s.entryNumber, s.createdAt, substring(s.suggestions, 1, " + SuggestionSummary.HEADLINE_LENGTH + ")) " +
+           "from Suggestion s where s.userId = :userId order by s.userId asc, s.entryNumber asc")
+    Stream<SuggestionSummary> streamSummariesByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.example.jobsuggestions.model.SuggestionSummary(" +
+           "s.userId, s.entryNumber, s.createdAt, substring(s.suggestions, 1, " + SuggestionSummary.HEADLINE_LENGTH + ")) " +
+           "from Suggestion s where s.userId = :userId and s.entryNumber > :after order by s.userId asc, s.entryNumber asc")
+    List<SuggestionSummary> findSummariesByUserIdAfter(@Param("userId") Long userId, @Param("after") Integer after, Pageable pageable);
+
+    // Version lookups for conditional GETs; they never read the answers or the text columns.
+    // Their results are query-cached until the next write to the suggestions table.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select s.version from Suggestion s where s.userId = :userId and s.entryNumber = :entryNumber")
+    Optional<Long> findVersion(@Param("userId") Long userId, @Param("entryNumber") Integer entryNumber);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.example.jobsuggestions.model.SuggestionListVersion(" +
+           "count(s), max(s.entryNumber), sum(s.version)) from Suggestion s where s.userId = :userId")
+    SuggestionListVersion findListVersion(@Param("userId") Long userId);
+
+    // Bulk deletes: no entities are loaded. Hibernate runs them as one DELETE on
+    // suggestion_answers (by a subquery on the same filter) followed by one on suggestions, so
+    // callers must run them inside a transaction.
+    @Modifying
+    @Query("delete from Suggestion s where s.userId = :userId and s.entryNumber in :entryNumbers")
+    int deleteByUserIdAndEntryNumberIn(@Param("userId") Long userId, @Param("entryNumbers") Collection<Integer> entryNumbers);
+
+    @Modifying
+    @Query("delete from Suggestion s where s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,12 @@
+package com.example.jobsuggestions.repository;
+
+import com.example.jobsuggestions.model.Suggestion;
+
+import java.util.List;
+
+public interface SuggestionRepositoryCustom {
+
+    // Inserts new suggestions without the SELECT that save() runs first for entities with an
+    // assigned id. Flushed together at commit, so the rows go out as JDBC batches.
+    List<Suggestion> insertAll(List<Suggestion> suggestions);
+}
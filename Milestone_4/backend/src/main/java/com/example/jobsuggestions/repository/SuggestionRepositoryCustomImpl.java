@@ -0,0 +1,23 @@
+package com.example.jobsuggestions.repository;
+
+import com.example.jobsuggestions.model.Suggestion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+class SuggestionRepositoryCustomImpl implements SuggestionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public List<Suggestion> insertAll(List<Suggestion> suggestions) {
+        for (Suggestion suggestion : suggestions) {
+            entityManager.persist(suggestion);
+        }
+        return suggestions;
+    }
+}
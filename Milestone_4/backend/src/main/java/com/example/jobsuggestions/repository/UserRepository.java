@@ -1,14 +1,32 @@
 package com.example.jobsuggestions.repository;
 
 import com.example.jobsuggestions.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Login lookups; the cached id resolves through the "users" entity region
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    // Native, with its own query space: a JPQL update on User (or a native one without spaces)
+    // would evict every cached user on each allocation. See User.entrySequence.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_entry_sequence"))
+    @Query(value = "UPDATE users SET entry_sequence = entry_sequence + :count WHERE id = :userId", nativeQuery = true)
+    int advanceEntrySequence(@Param("userId") Long userId, @Param("count") int count);
+
+    @Query("select u.entrySequence from User u where u.id = :userId")
+    int findEntrySequence(@Param("userId") Long userId);
 }
 
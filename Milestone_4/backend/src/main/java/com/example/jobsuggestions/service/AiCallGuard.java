@@ -0,0 +1,126 @@
+package com.example.jobsuggestions.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Protects the app from a slow or failing AI provider. A semaphore bulkhead caps how many
+// provider calls run at once, and a circuit breaker stops calling a provider that keeps
+// failing (or answering slower than slow-call-ms). Rejected calls fail immediately with
+// AiUnavailableException, so request threads are not held for the full provider timeout.
+// Every call that runs also gets a deadline of call-timeout-ms: a call still pending then fails
+// with AiCallTimeoutException and gives its permit back, even if the provider never answers.
+// Cache hits and coalesced requests never reach the guard.
+@Component
+public class AiCallGuard {
+
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final CircuitBreaker breaker;
+    private final long slowCallNanos;
+    private final long callTimeoutMs;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong slow = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rejectedOpen = new AtomicLong();
+    private final AtomicLong rejectedFull = new AtomicLong();
+
+    @Autowired
+    public AiCallGuard(@Value("${suggestions.ai.bulkhead.max-concurrent:20}") int maxConcurrent,
+                       @Value("${suggestions.ai.breaker.window-size:20}") int windowSize,
+                       @Value("${suggestions.ai.breaker.minimum-calls:10}") int minimumCalls,
+                       @Value("${suggestions.ai.breaker.failure-rate-threshold:50}") int failureRatePercent,
+                       @Value("${suggestions.ai.breaker.slow-call-ms:20000}") long slowCallMs,
+                       @Value("${suggestions.ai.breaker.open-seconds:30}") long openSeconds,
+                       @Value("${suggestions.ai.breaker.half-open-probes:3}") int halfOpenProbes,
+                       @Value("${suggestions.ai.call-timeout-ms:40000}") long callTimeoutMs) {
+        this(maxConcurrent, new CircuitBreaker(windowSize, minimumCalls, failureRatePercent,
+                TimeUnit.SECONDS.toNanos(openSeconds), halfOpenProbes, System::nanoTime),
+                TimeUnit.MILLISECONDS.toNanos(slowCallMs), callTimeoutMs, System::nanoTime);
+    }
+
+    AiCallGuard(int maxConcurrent, CircuitBreaker breaker, long slowCallNanos, long callTimeoutMs, LongSupplier nanoClock) {
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.breaker = breaker;
+        this.slowCallNanos = slowCallNanos;
+        this.callTimeoutMs = callTimeoutMs;
+        this.nanoClock = nanoClock;
+    }
+
+    public <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> aiCall) {
+        // Bulkhead first: a half-open probe slot is only taken by a call that will actually run
+        if (!bulkhead.tryAcquire()) {
+            rejectedFull.incrementAndGet();
+            return CompletableFuture.failedFuture(new AiUnavailableException(
+                    "AI service is busy (" + maxConcurrent + " requests in progress). Please try again shortly.", 1));
+        }
+        if (!breaker.tryAcquire()) {
+            bulkhead.release();
+            rejectedOpen.incrementAndGet();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(breaker.remainingOpenNanos()));
+            return CompletableFuture.failedFuture(new AiUnavailableException(
+                    "AI service is temporarily unavailable after repeated failures. Please try again in " + retryAfter + "s.", retryAfter));
+        }
+
+        long startedAt = nanoClock.getAsLong();
+        CompletableFuture<T> result;
+        try {
+            result = aiCall.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        // The deadline completes a copy, so the provider's own future is left alone
+        return result.copy().orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS).handle((value, error) -> {
+            bulkhead.release();
+            boolean tooSlow = nanoClock.getAsLong() - startedAt > slowCallNanos;
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                timedOut.incrementAndGet();
+                breaker.onFailure();
+                throw new CompletionException(new AiCallTimeoutException(
+                        "AI service did not answer within " + callTimeoutMs / 1000 + "s. Please try again shortly.", 1));
+            }
+            if (error != null) {
+                failed.incrementAndGet();
+                breaker.onFailure();
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+            } else if (tooSlow) {
+                slow.incrementAndGet();
+                breaker.onFailure();
+            } else {
+                succeeded.incrementAndGet();
+                breaker.onSuccess();
+            }
+            return value;
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("breaker", breaker.stats());
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("active", maxConcurrent - bulkhead.availablePermits());
+        stats.put("succeeded", succeeded.get());
+        stats.put("failed", failed.get());
+        stats.put("slow", slow.get());
+        stats.put("timedOut", timedOut.get());
+        stats.put("rejectedCircuitOpen", rejectedOpen.get());
+        stats.put("rejectedBulkheadFull", rejectedFull.get());
+        return stats;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.jobsuggestions.service;
+
+// Thrown by AiCallGuard when a provider call has not finished within suggestions.ai.call-timeout-ms.
+// The call's bulkhead permit is released and the failure counts against the circuit breaker.
+public class AiCallTimeoutException extends AiUnavailableException {
+
+    public AiCallTimeoutException(String message, long retryAfterSeconds) {
+        super(message, retryAfterSeconds);
+    }
+}
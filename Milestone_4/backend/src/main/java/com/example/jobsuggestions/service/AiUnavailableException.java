@@ -0,0 +1,17 @@
+package com.example.jobsuggestions.service;
+
+// Thrown without calling the AI provider when AiCallGuard sheds the call: the circuit breaker
+// is open or too many AI calls are already running. Surfaces as a 503 with Retry-After.
+public class AiUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AiUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.jobsuggestions.service;
+
+import com.example.jobsuggestions.model.AnswersJsonConverter;
+import com.example.jobsuggestions.model.Suggestion;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Moves answers still stored one row per answer in suggestion_answers into the
+// suggestions.answers_json column, then removes the migrated rows. Runs once at startup
+// and is a no-op when there is nothing left to migrate.
+@Component
+public class AnswersStorageMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswersStorageMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${suggestions.answers.storage:json}")
+    private String answersStorage;
+
+    @Value("${suggestions.answers.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    private final AnswersJsonConverter converter = new AnswersJsonConverter();
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        if (!migrateOnStartup || "table".equalsIgnoreCase(answersStorage)) {
+            return;
+        }
+        int migrated = migrate();
+        if (migrated > 0) {
+            log.info("Migrated answers of {} suggestions to answers_json", migrated);
+        }
+    }
+
+    public int migrate() {
+        List<Object[]> batch = new ArrayList<>();
+        int[] migrated = {0};
+        Object[] current = {null, null};
+        Map<String, String> answers = new LinkedHashMap<>();
+
+        // Rows arrive grouped by suggestion, so only one suggestion's answers are held at a time
+        jdbcTemplate.query(
+                "SELECT sa.user_id, sa.entry_number, sa.answer_key, sa.answer_value " +
+                "FROM suggestion_answers sa JOIN suggestions s " +
+                "ON s.user_id = sa.user_id AND s.entry_number = sa.entry_number " +
+                "WHERE s.answers_json IS NULL ORDER BY sa.user_id, sa.entry_number",
+                rs -> {
+                    Long userId = rs.getLong(1);
+                    Integer entryNumber = rs.getInt(2);
+                    if (current[0] != null && (!current[0].equals(userId) || !current[1].equals(entryNumber))) {
+                        batch.add(new Object[]{converter.convertToDatabaseColumn(answers), current[0], current[1]});
+                        answers.clear();
+                        if (batch.size() >= BATCH_SIZE) {
+                            migrated[0] += flush(batch);
+                        }
+                    }
+                    current[0] = userId;
+                    current[1] = entryNumber;
+                    answers.put(rs.getString(3), rs.getString(4));
+                });
+        if (current[0] != null) {
+            batch.add(new Object[]{converter.convertToDatabaseColumn(answers), current[0], current[1]});
+        }
+        migrated[0] += flush(batch);
+
+        if (migrated[0] > 0) {
+            jdbcTemplate.update(
+                    "DELETE FROM suggestion_answers sa WHERE EXISTS (SELECT 1 FROM suggestions s " +
+                    "WHERE s.user_id = sa.user_id AND s.entry_number = sa.entry_number AND s.answers_json IS NOT NULL)");
+            // The rows were changed behind Hibernate's back, so cached copies are out of date
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            cache.evictEntityData(Suggestion.class);
+            cache.evictCollectionData(Suggestion.class.getName() + ".legacyAnswers");
+        }
+        return migrated[0];
+    }
+
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE suggestions SET answers_json = ? WHERE user_id = ? AND entry_number = ? AND answers_json IS NULL",
+                batch);
+        int flushed = batch.size();
+        batch.clear();
+        return flushed;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.jobsuggestions.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Count-based circuit breaker. While CLOSED it records the outcome of the last windowSize
+// calls and opens once at least minimumCalls have been recorded and the failure rate reaches
+// failureRatePercent. OPEN rejects every call for openNanos, then HALF_OPEN lets exactly
+// halfOpenProbes calls through: all of them succeeding closes the breaker, any failure
+// re-opens it for another openNanos.
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAtNanos;
+    private int probesStarted;
+    private int probesSucceeded;
+    private long timesOpened;
+
+    CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, long openNanos,
+                   int halfOpenProbes, LongSupplier nanoClock) {
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRatePercent = failureRatePercent;
+        this.openNanos = openNanos;
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.nanoClock = nanoClock;
+    }
+
+    // Whether a call may proceed now. Every permitted call must be followed by exactly one
+    // onSuccess or onFailure.
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenProbes) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenProbes) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures * 100 >= failureRatePercent * recorded) {
+                open();
+            }
+        }
+    }
+
+    synchronized State state() {
+        // An expired OPEN is reported as HALF_OPEN even before the next call moves it there
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    // Time left until an OPEN breaker starts probing; 0 otherwise
+    synchronized long remainingOpenNanos() {
+        return state == State.OPEN ? Math.max(0, openNanos - (nanoClock.getAsLong() - openedAtNanos)) : 0;
+    }
+
+    synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state());
+        stats.put("failureRatePercent", recorded == 0 ? 0 : failures * 100 / recorded);
+        stats.put("recordedCalls", recorded);
+        stats.put("timesOpened", timesOpened);
+        stats.put("retryAfterSeconds", TimeUnit.NANOSECONDS.toSeconds(remainingOpenNanos()));
+        return stats;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = nanoClock.getAsLong();
+        timesOpened++;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
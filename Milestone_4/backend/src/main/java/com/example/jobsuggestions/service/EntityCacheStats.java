@@ -0,0 +1,53 @@
+package com.example.jobsuggestions.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Hit ratios of Hibernate's second-level cache (GET /api/stats/entity-cache): per entity and
+// collection region (plus the query result region), and for the query cache overall. Counters
+// run from startup.
+@Component
+public class EntityCacheStats {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public Map<String, Object> stats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", statistics.isStatisticsEnabled());
+        stats.put("secondLevel", counters(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        stats.put("queries", counters(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+
+        Map<String, Object> regions = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                regions.put(region, counters(regionStatistics.getHitCount(),
+                        regionStatistics.getMissCount(), regionStatistics.getPutCount()));
+            }
+        }
+        stats.put("regions", regions);
+        return stats;
+    }
+
+    private static Map<String, Object> counters(long hits, long misses, long puts) {
+        long lookups = hits + misses;
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("hits", hits);
+        counters.put("misses", misses);
+        counters.put("puts", puts);
+        counters.put("hitRatio", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return counters;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.jobsuggestions.service;
+
+import com.example.jobsuggestions.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// Hands out user-specific entry numbers from the per-user counter on the users row.
+// The UPDATE takes the row lock, so concurrent creates for the same user serialize on it
+// and each gets a distinct number; numbers are never handed out twice, even after deletes.
+@Component
+public class EntryNumberAllocator {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Reserves count consecutive entry numbers and returns the first one
+    @Transactional
+    public int allocate(Long userId, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be at least 1");
+        }
+        if (userRepository.advanceEntrySequence(userId, count) == 0) {
+            throw new IllegalStateException("User not found: " + userId);
+        }
+        // Reads our own uncommitted update while still holding the row lock
+        int last = userRepository.findEntrySequence(userId);
+        return last - count + 1;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.jobsuggestions.service;
+
+// Suggestion text together with where it came from: the AI provider, or the local
+// rule-based engine when the AI call failed and the fallback is enabled. Token counts are
+// those reported by the provider, and null for cached or locally generated text.
+public record GeneratedSuggestions(String text, boolean aiGenerated, Integer promptTokens, Integer completionTokens) {
+
+    public static GeneratedSuggestions ai(String text) {
+        return new GeneratedSuggestions(text, true, null, null);
+    }
+
+    public static GeneratedSuggestions ai(LlmCompletion completion) {
+        return new GeneratedSuggestions(completion.text(), true, completion.promptTokens(), completion.completionTokens());
+    }
+
+    public static GeneratedSuggestions local(String text) {
+        return new GeneratedSuggestions(text, false, null, null);
+    }
+}
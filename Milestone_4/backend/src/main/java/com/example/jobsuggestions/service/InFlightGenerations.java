@@ -0,0 +1,109 @@
+package com.example.jobsuggestions.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Single-flight registry for AI generations. Concurrent requests with the same answer
+// fingerprint (double-clicked submits, several users sending identical answers) share one
+// OpenRouter call instead of each firing their own.
+@Component
+public class InFlightGenerations {
+
+    private static final class InFlight {
+        final CompletableFuture<Object> promise = new CompletableFuture<>();
+        final long startedAtNanos;
+
+        InFlight(long startedAtNanos) {
+            this.startedAtNanos = startedAtNanos;
+        }
+    }
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final long maxAgeNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    @Autowired
+    public InFlightGenerations(@Value("${suggestions.inflight.max-age-seconds:35}") long maxAgeSeconds) {
+        this(TimeUnit.SECONDS.toNanos(maxAgeSeconds), System::nanoTime);
+    }
+
+    InFlightGenerations(long maxAgeNanos, LongSupplier nanoClock) {
+        this.maxAgeNanos = maxAgeNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    // Returns a future for the generation identified by key, attaching to a pending one when
+    // possible and otherwise starting a new one with generator. Each caller gets its own copy
+    // so cancelling or completing it cannot affect the other waiters. A key must always be
+    // joined with the same result type.
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> join(String key, Supplier<CompletableFuture<T>> generator) {
+        InFlight[] owned = new InFlight[1];
+        InFlight current = inFlight.compute(key, (k, existing) -> {
+            if (existing != null && isReusable(existing)) {
+                return existing;
+            }
+            owned[0] = new InFlight(nanoClock.getAsLong());
+            return owned[0];
+        });
+
+        if (owned[0] == null) {
+            coalesced.incrementAndGet();
+            return (CompletableFuture<T>) current.promise.copy();
+        }
+
+        // Started outside compute(): the generator may complete synchronously, and the
+        // removal below must not run while the map bin is locked
+        started.incrementAndGet();
+        InFlight flight = owned[0];
+        flight.promise.whenComplete((result, error) -> inFlight.remove(key, flight));
+        CompletableFuture<T> generation;
+        try {
+            generation = generator.get();
+        } catch (RuntimeException e) {
+            generation = CompletableFuture.failedFuture(e);
+        }
+        generation.whenComplete((result, error) -> {
+            if (error != null) {
+                flight.promise.completeExceptionally(error);
+            } else {
+                flight.promise.complete(result);
+            }
+        });
+        return (CompletableFuture<T>) flight.promise.copy();
+    }
+
+    // Failed flights are removed on completion, but the check also guards the window before
+    // that callback runs. Flights older than maxAge are assumed stuck and replaced.
+    private boolean isReusable(InFlight flight) {
+        if (flight.promise.isCompletedExceptionally() || flight.promise.isCancelled()) {
+            return false;
+        }
+        return nanoClock.getAsLong() - flight.startedAtNanos < maxAgeNanos;
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", inFlight.size());
+        stats.put("started", started.get());
+        stats.put("coalesced", coalesced.get());
+        return stats;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.jobsuggestions.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// A chat-completion backend that turns a rendered prompt into suggestion text.
+// llm.provider selects the implementation: "openrouter" (default) or "stub" for offline runs.
+public interface LlmClient {
+
+    // Model identifier; part of the cache fingerprint and of the stored externalApiData
+    String model();
+
+    // Completes with the whole response text and its token usage, generating at most maxTokens
+    // completion tokens. Must not block the caller.
+    CompletableFuture<LlmCompletion> complete(String prompt, int maxTokens);
+
+    // Hands each piece of text to onDelta as it arrives and completes with the assembled text.
+    // A RuntimeException thrown by onDelta aborts the stream and fails the future.
+    CompletableFuture<LlmCompletion> stream(String prompt, int maxTokens, Consumer<String> onDelta);
+}
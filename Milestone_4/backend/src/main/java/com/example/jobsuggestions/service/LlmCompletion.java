@@ -0,0 +1,14 @@
+package com.example.jobsuggestions.service;
+
+// Text of a chat completion together with the provider's token counts from its "usage" block.
+// The counts are null when the provider did not report them (or the text came from the cache).
+public record LlmCompletion(String text, Integer promptTokens, Integer completionTokens) {
+
+    public static LlmCompletion of(String text) {
+        return new LlmCompletion(text, null, null);
+    }
+
+    public boolean hasUsage() {
+        return completionTokens != null;
+    }
+}
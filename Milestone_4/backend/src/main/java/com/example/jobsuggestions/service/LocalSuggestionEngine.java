@@ -0,0 +1,289 @@
+package com.example.jobsuggestions.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Rule-based job matcher that runs in-process, used as the fallback when the AI call fails and
+// for instant previews. The job profiles (job-index.json) are turned into keyword -> job id
+// indexes once at startup; ranking a survey is a few hash lookups per answer word plus a scan
+// of the score array, well under a millisecond.
+@Component
+public class LocalSuggestionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalSuggestionEngine.class);
+
+    // Recorded as the prompt version / model of suggestions produced here
+    public static final String VERSION = "local-v1";
+    public static final String MODEL = "local/rule-engine";
+
+    static final int SUGGESTION_COUNT = 5;
+
+    // How much one matching keyword is worth, per answer field and index
+    private static final int ROLE_PREFERENCE_ON_ROLE = 5;
+    private static final int ROLE_PREFERENCE_ON_SKILL = 1;
+    private static final int SKILLS_ON_SKILL = 3;
+    private static final int PERSONALITY_ON_TRAIT = 2;
+    private static final int WORK_HISTORY_ON_ROLE = 2;
+    private static final int WORK_HISTORY_ON_SKILL = 1;
+    private static final int LOCATION_MATCH = 2;
+    private static final int LOCATION_MISMATCH = -3;
+
+    // One entry of job-index.json
+    record JobProfile(String title, List<String> roles, List<String> skills, List<String> traits,
+                      List<String> locations, List<String> nextSteps) {
+    }
+
+    private record JobKeywords(Set<String> roles, Set<String> skills, Set<String> traits, Set<String> locations) {
+    }
+
+    public record Match(String title, int score, List<String> matchedRoles, List<String> matchedSkills,
+                        List<String> matchedTraits, boolean locationMatch, List<String> nextSteps) {
+    }
+
+    private final JobProfile[] jobs;
+    // Normalized keywords of each profile, by job id
+    private final JobKeywords[] jobKeywords;
+    private final Map<String, int[]> roleIndex = new HashMap<>();
+    private final Map<String, int[]> skillIndex = new HashMap<>();
+    private final Map<String, int[]> traitIndex = new HashMap<>();
+    // Longest keyword in words, so queries only build n-grams up to that length
+    private final int maxKeywordWords;
+
+    @Autowired
+    public LocalSuggestionEngine(@Value("${suggestions.local.index:classpath:job-index.json}") Resource index) throws IOException {
+        this(readProfiles(index));
+    }
+
+    LocalSuggestionEngine(List<JobProfile> profiles) {
+        this.jobs = profiles.toArray(new JobProfile[0]);
+        this.jobKeywords = new JobKeywords[jobs.length];
+
+        Map<String, List<Integer>> roles = new HashMap<>();
+        Map<String, List<Integer>> skills = new HashMap<>();
+        Map<String, List<Integer>> traits = new HashMap<>();
+        int longest = 1;
+        for (int id = 0; id < jobs.length; id++) {
+            Set<String> locations = new HashSet<>();
+            for (String location : jobs[id].locations()) {
+                locations.add(normalize(location));
+            }
+            JobKeywords job = new JobKeywords(addKeywords(roles, jobs[id].roles(), id),
+                    addKeywords(skills, jobs[id].skills(), id), addKeywords(traits, jobs[id].traits(), id), locations);
+            jobKeywords[id] = job;
+            for (Set<String> keywords : List.of(job.roles(), job.skills(), job.traits())) {
+                for (String keyword : keywords) {
+                    longest = Math.max(longest, keyword.split(" ").length);
+                }
+            }
+        }
+        freeze(roles, roleIndex);
+        freeze(skills, skillIndex);
+        freeze(traits, traitIndex);
+        this.maxKeywordWords = longest;
+        log.info("Local suggestion engine loaded {} job profiles", jobs.length);
+    }
+
+    private static List<JobProfile> readProfiles(Resource index) throws IOException {
+        try (InputStream in = index.getInputStream()) {
+            return new ObjectMapper().readValue(in, new TypeReference<List<JobProfile>>() { });
+        }
+    }
+
+    private static Set<String> addKeywords(Map<String, List<Integer>> index, List<String> keywords, int id) {
+        Set<String> normalized = new HashSet<>();
+        for (String keyword : keywords) {
+            String key = normalize(keyword);
+            if (normalized.add(key)) {
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(id);
+            }
+        }
+        return normalized;
+    }
+
+    private static void freeze(Map<String, List<Integer>> source, Map<String, int[]> target) {
+        for (Map.Entry<String, List<Integer>> entry : source.entrySet()) {
+            target.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    public int size() {
+        return jobs.length;
+    }
+
+    // Top `limit` jobs for the survey answers, best first; ties keep index order
+    public List<Match> rank(Map<String, String> answers, int limit) {
+        Set<String> rolePreference = grams(answers.get("rolePreference"));
+        Set<String> skills = grams(answers.get("skills"));
+        Set<String> personality = grams(answers.get("personality"));
+        Set<String> workHistory = grams(answers.get("workHistory"));
+        String location = answers.get("location") == null ? "" : normalize(answers.get("location"));
+
+        int[] scores = new int[jobs.length];
+        addScores(scores, rolePreference, roleIndex, ROLE_PREFERENCE_ON_ROLE);
+        addScores(scores, rolePreference, skillIndex, ROLE_PREFERENCE_ON_SKILL);
+        addScores(scores, skills, skillIndex, SKILLS_ON_SKILL);
+        addScores(scores, personality, traitIndex, PERSONALITY_ON_TRAIT);
+        addScores(scores, workHistory, roleIndex, WORK_HISTORY_ON_ROLE);
+        addScores(scores, workHistory, skillIndex, WORK_HISTORY_ON_SKILL);
+        if (!location.isEmpty()) {
+            for (int id = 0; id < jobs.length; id++) {
+                scores[id] += jobKeywords[id].locations().contains(location) ? LOCATION_MATCH : LOCATION_MISMATCH;
+            }
+        }
+
+        // Partial selection sort: limit is tiny compared to the number of jobs
+        int count = Math.min(limit, jobs.length);
+        boolean[] taken = new boolean[jobs.length];
+        List<Match> matches = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            int best = -1;
+            for (int id = 0; id < jobs.length; id++) {
+                if (!taken[id] && (best < 0 || scores[id] > scores[best])) {
+                    best = id;
+                }
+            }
+            taken[best] = true;
+            Set<String> roleWords = new HashSet<>(rolePreference);
+            roleWords.addAll(workHistory);
+            Set<String> skillWords = new HashSet<>(skills);
+            skillWords.addAll(workHistory);
+            matches.add(new Match(jobs[best].title(), scores[best],
+                    matched(jobKeywords[best].roles(), roleWords), matched(jobKeywords[best].skills(), skillWords),
+                    matched(jobKeywords[best].traits(), personality),
+                    !location.isEmpty() && jobKeywords[best].locations().contains(location),
+                    jobs[best].nextSteps()));
+        }
+        return matches;
+    }
+
+    // Fallback text for a failed AI call, noting where it came from
+    public String suggest(Map<String, String> answers) {
+        return render(rank(answers, SUGGESTION_COUNT), answers.get("location"))
+                + "\n\n(Generated by the built-in matcher; AI suggestions were not available.)";
+    }
+
+    // Matches in the same numbered layout the AI prompt asks for
+    public String render(List<Match> matches, String location) {
+        StringBuilder text = new StringBuilder(1024);
+        int rank = 1;
+        for (Match match : matches) {
+            text.append(rank++).append(". Job Title: ").append(match.title()).append('\n');
+            text.append("   Why: ").append(reason(match, location)).append('\n');
+            text.append("   Next steps:\n");
+            for (String step : match.nextSteps()) {
+                text.append("   - ").append(step).append('\n');
+            }
+            text.append('\n');
+        }
+        return text.toString().stripTrailing();
+    }
+
+    private static String reason(Match match, String location) {
+        List<String> parts = new ArrayList<>();
+        if (!match.matchedRoles().isEmpty()) {
+            parts.add("close to the roles you described (" + String.join(", ", match.matchedRoles()) + ")");
+        }
+        if (!match.matchedSkills().isEmpty()) {
+            parts.add("uses your skills in " + String.join(", ", match.matchedSkills()));
+        }
+        if (!match.matchedTraits().isEmpty()) {
+            parts.add("fits your personality (" + String.join(", ", match.matchedTraits()) + ")");
+        }
+        if (match.locationMatch()) {
+            parts.add("commonly offered " + location.trim());
+        }
+        if (parts.isEmpty()) {
+            return "A broadly accessible role worth exploring alongside your preferences.";
+        }
+        String joined = String.join("; ", parts);
+        return Character.toUpperCase(joined.charAt(0)) + joined.substring(1) + ".";
+    }
+
+    private static void addScores(int[] scores, Set<String> grams, Map<String, int[]> index, int weight) {
+        for (String gram : grams) {
+            int[] ids = index.get(gram);
+            if (ids != null) {
+                for (int id : ids) {
+                    scores[id] += weight;
+                }
+            }
+        }
+    }
+
+    private static List<String> matched(Set<String> keywords, Set<String> grams) {
+        List<String> matched = new ArrayList<>();
+        for (String gram : grams) {
+            if (keywords.contains(gram)) {
+                matched.add(gram);
+            }
+        }
+        matched.sort(null);
+        return matched;
+    }
+
+    // Words of an answer plus every run of up to maxKeywordWords consecutive words, so
+    // multi-word keywords like "machine learning" or "calm under pressure" match
+    Set<String> grams(String answer) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (answer == null || answer.isBlank()) {
+            return grams;
+        }
+        String[] words = normalize(answer).split(" ");
+        for (int start = 0; start < words.length; start++) {
+            StringBuilder gram = new StringBuilder();
+            for (int end = start; end < words.length && end - start < maxKeywordWords; end++) {
+                if (words[end].isEmpty()) {
+                    break;
+                }
+                if (gram.length() > 0) {
+                    gram.append(' ');
+                }
+                gram.append(words[end]);
+                grams.add(gram.toString());
+            }
+        }
+        return grams;
+    }
+
+    // Lower-cases and turns everything except letters, digits and the characters used in
+    // skill names (c++, c#, node.js, ci/cd) into single spaces; '-' counts as a space so
+    // "front-end" and "front end" are the same keyword
+    static String normalize(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            boolean keep = Character.isLetterOrDigit(c) || c == '+' || c == '#' || c == '/'
+                    || (c == '.' && i + 1 < text.length() && Character.isLetterOrDigit(text.charAt(i + 1)));
+            if (keep) {
+                out.append(c);
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int end = out.length();
+        while (end > 0 && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return out.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.jobsuggestions.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Sizes max_tokens for each AI generation. Completion length dominates generation latency, so a
+// short survey should not reserve (and wait on) the allowance of a detailed one.
+//
+// Answers are grouped into richness tiers by their estimated token count. Until a tier has
+// min-samples observations its cap comes from the answers alone: base plus per-answer-token for
+// every answer token. From then on it is the tier's 95th percentile of reported completion
+// tokens over the last `window` generations, plus headroom-percent. A completion that used the
+// whole cap was probably cut off, so it is recorded as needing the headroom on top of the cap,
+// which pushes the tier's cap back up. Caps always stay within [min, max].
+@Component
+public class MaxTokensPolicy {
+
+    static final String[] TIERS = {"small", "medium", "large", "xlarge"};
+    // Largest estimated answer token count of each tier but the last
+    static final int[] TIER_LIMITS = {60, 150, 400};
+
+    public record Decision(int tier, int answerTokens, int maxTokens) {
+
+        public String tierName() {
+            return TIERS[tier];
+        }
+    }
+
+    private static final class Tier {
+        final int[] window;
+        int size;
+        int next;
+        long truncated;
+        // 0 until the tier has enough samples
+        volatile int learnedCap;
+
+        Tier(int windowSize) {
+            this.window = new int[windowSize];
+        }
+    }
+
+    private final boolean adaptive;
+    private final int minTokens;
+    private final int maxTokens;
+    private final int baseTokens;
+    private final double perAnswerToken;
+    private final int headroomPercent;
+    private final int minSamples;
+    private final Tier[] tiers = new Tier[TIERS.length];
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public MaxTokensPolicy(@Value("${suggestions.ai.max-tokens.adaptive:true}") boolean adaptive,
+                           @Value("${suggestions.ai.max-tokens.min:256}") int minTokens,
+                           @Value("${suggestions.ai.max-tokens.max:${llm.openrouter.max-tokens:600}}") int maxTokens,
+                           @Value("${suggestions.ai.max-tokens.base:450}") int baseTokens,
+                           @Value("${suggestions.ai.max-tokens.per-answer-token:1.0}") double perAnswerToken,
+                           @Value("${suggestions.ai.max-tokens.headroom-percent:25}") int headroomPercent,
+                           @Value("${suggestions.ai.max-tokens.window:100}") int window,
+                           @Value("${suggestions.ai.max-tokens.min-samples:20}") int minSamples,
+                           MeterRegistry meterRegistry) {
+        if (minTokens < 1 || maxTokens < minTokens) {
+            throw new IllegalArgumentException("suggestions.ai.max-tokens needs 1 <= min <= max, got min="
+                    + minTokens + " max=" + maxTokens);
+        }
+        this.adaptive = adaptive;
+        this.minTokens = minTokens;
+        this.maxTokens = maxTokens;
+        this.baseTokens = baseTokens;
+        this.perAnswerToken = perAnswerToken;
+        this.headroomPercent = headroomPercent;
+        this.minSamples = Math.max(1, Math.min(minSamples, window));
+        for (int i = 0; i < tiers.length; i++) {
+            tiers[i] = new Tier(Math.max(1, window));
+        }
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Decision decide(Map<String, String> answers) {
+        int answerTokens = 0;
+        for (String answer : answers.values()) {
+            if (answer != null) {
+                answerTokens += TokenEstimator.estimate(answer);
+            }
+        }
+        int tier = tierOf(answerTokens);
+        if (!adaptive) {
+            return new Decision(tier, answerTokens, maxTokens);
+        }
+        int learned = tiers[tier].learnedCap;
+        int cap = learned > 0 ? learned : (int) Math.round(baseTokens + perAnswerToken * answerTokens);
+        return new Decision(tier, answerTokens, clamp(cap));
+    }
+
+    static int tierOf(int answerTokens) {
+        for (int i = 0; i < TIER_LIMITS.length; i++) {
+            if (answerTokens <= TIER_LIMITS[i]) {
+                return i;
+            }
+        }
+        return TIER_LIMITS.length;
+    }
+
+    // Feeds a finished generation back into its tier and records the token metrics:
+    //   suggestions.ai.tokens              prompt / completion tokens reported by the provider
+    //   suggestions.ai.max.tokens          the cap that was asked for
+    //   suggestions.ai.latency.per.token   generation time divided by completion tokens
+    //   suggestions.ai.truncated           completions that used the whole cap
+    // all tagged with the richness tier, so latency and token counts can be compared per tier.
+    public void observe(Decision decision, LlmCompletion completion, long elapsedNanos) {
+        String tierName = decision.tierName();
+        DistributionSummary.builder("suggestions.ai.max.tokens")
+                .description("max_tokens requested per AI generation")
+                .baseUnit("tokens")
+                .tag("tier", tierName)
+                .register(meterRegistry)
+                .record(decision.maxTokens());
+        if (completion == null || !completion.hasUsage()) {
+            return;
+        }
+        int completionTokens = completion.completionTokens();
+        if (completion.promptTokens() != null) {
+            tokenSummary("prompt", tierName).record(completion.promptTokens());
+        }
+        tokenSummary("completion", tierName).record(completionTokens);
+        if (completionTokens > 0) {
+            DistributionSummary.builder("suggestions.ai.latency.per.token")
+                    .description("AI generation time per completion token")
+                    .baseUnit("milliseconds")
+                    .tag("tier", tierName)
+                    .register(meterRegistry)
+                    .record(elapsedNanos / 1_000_000.0 / completionTokens);
+        }
+
+        boolean truncated = truncated(decision, completion);
+        if (truncated) {
+            Counter.builder("suggestions.ai.truncated")
+                    .description("AI generations that used their whole max_tokens")
+                    .tag("tier", tierName)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        record(tiers[decision.tier()], truncated ? withHeadroom(decision.maxTokens()) : completionTokens, truncated);
+    }
+
+    // A completion that used the whole cap was probably cut off mid-answer. Without reported
+    // usage there is no telling, so it is taken as complete.
+    public static boolean truncated(Decision decision, LlmCompletion completion) {
+        return completion != null && completion.hasUsage() && completion.completionTokens() >= decision.maxTokens();
+    }
+
+    private DistributionSummary tokenSummary(String type, String tierName) {
+        return DistributionSummary.builder("suggestions.ai.tokens")
+                .description("Tokens reported by the AI provider per generation")
+                .baseUnit("tokens")
+                .tag("type", type)
+                .tag("tier", tierName)
+                .register(meterRegistry);
+    }
+
+    // Called once per provider call, so sorting the small window each time is cheap
+    private void record(Tier tier, int tokens, boolean truncated) {
+        synchronized (tier) {
+            tier.window[tier.next] = tokens;
+            tier.next = (tier.next + 1) % tier.window.length;
+            tier.size = Math.min(tier.size + 1, tier.window.length);
+            if (truncated) {
+                tier.truncated++;
+            }
+            if (tier.size >= minSamples) {
+                int[] sorted = Arrays.copyOf(tier.window, tier.size);
+                Arrays.sort(sorted);
+                int p95 = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+                tier.learnedCap = clamp(withHeadroom(p95));
+            }
+        }
+    }
+
+    private int withHeadroom(int tokens) {
+        return (int) Math.ceil(tokens * (100 + headroomPercent) / 100.0);
+    }
+
+    private int clamp(int tokens) {
+        return Math.max(minTokens, Math.min(maxTokens, tokens));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("adaptive", adaptive);
+        stats.put("min", minTokens);
+        stats.put("max", maxTokens);
+        Map<String, Object> byTier = new LinkedHashMap<>();
+        for (int i = 0; i < tiers.length; i++) {
+            Tier tier = tiers[i];
+            Map<String, Object> tierStats = new LinkedHashMap<>();
+            synchronized (tier) {
+                tierStats.put("maxAnswerTokens", i < TIER_LIMITS.length ? TIER_LIMITS[i] : null);
+                tierStats.put("samples", tier.size);
+                tierStats.put("truncated", tier.truncated);
+                tierStats.put("learnedCap", tier.learnedCap > 0 ? tier.learnedCap : null);
+            }
+            byTier.put(TIERS[i], tierStats);
+        }
+        stats.put("tiers", byTier);
+        return stats;
+    }
+}
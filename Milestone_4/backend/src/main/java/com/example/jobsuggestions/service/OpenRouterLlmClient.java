@@ -0,0 +1,546 @@
+package com.example.jobsuggestions.service;
+
+import com.example.jobsuggestions.config.CorrelationId;
+import com.example.jobsuggestions.config.VirtualThreads;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// OpenRouter chat completions (OpenAI-compatible API) over one shared HttpClient.
+// The client prefers HTTP/2, so concurrent generations are multiplexed over a single
+// connection that stays open between requests; it falls back to pooled HTTP/1.1 keep-alive
+// connections if the server does not negotiate h2. How long idle connections stay pooled is the
+// JVM-wide -Djdk.httpclient.keepalive.timeout flag, set for spring-boot:run in pom.xml.
+// Response bodies are decoded with a streaming JsonParser that picks out
+// choices[0].message.content and the usage token counts instead of building a tree.
+//
+// Every call has a deadline of request-timeout-ms for the whole response, not just its headers,
+// and a stream is also cut off when no line arrives for stream-idle-timeout-ms. Either way the
+// exchange is aborted and the call fails with an HttpTimeoutException, so a provider that sends
+// headers and then stalls never holds a thread (or an AiCallGuard permit) indefinitely.
+@Component
+@ConditionalOnProperty(name = "llm.provider", havingValue = "openrouter", matchIfMissing = true)
+public class OpenRouterLlmClient implements LlmClient {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenRouterLlmClient.class);
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final String baseUrl;
+    private final String model;
+    private final Duration requestTimeout;
+    private final long streamIdleTimeoutMs;
+    private final ExecutorService executor;
+    private final ExecutorService responseExecutor;
+    private final ScheduledExecutorService timeouts;
+    private final HttpClient httpClient;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public OpenRouterLlmClient(@Value("${llm.openrouter.base-url:https://openrouter.ai/api/v1}") String baseUrl,
+                               @Value("${llm.openrouter.model:openai/gpt-3.5-turbo}") String model,
+                               @Value("${llm.openrouter.connect-timeout-ms:5000}") long connectTimeoutMs,
+                               @Value("${llm.openrouter.request-timeout-ms:30000}") long requestTimeoutMs,
+                               @Value("${llm.openrouter.stream-idle-timeout-ms:10000}") long streamIdleTimeoutMs,
+                               @Value("${llm.openrouter.executor-threads:8}") int executorThreads,
+                               @Value("${suggestions.threads.mode:platform}") String threadsMode,
+                               MeterRegistry meterRegistry) {
+        this.baseUrl = baseUrl;
+        this.model = model;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.streamIdleTimeoutMs = streamIdleTimeoutMs;
+        this.meterRegistry = meterRegistry;
+
+        // The HttpClient's own pool only moves bytes and must never block: it is what delivers the
+        // SSE lines a stream is waiting for. Parsing, reading streams and every stage chained on a
+        // response (cache writes, database saves) run on responseExecutor instead, which is not
+        // bounded here because the AiCallGuard bulkhead already caps the calls in progress.
+        // In virtual mode every task gets its own virtual thread and executorThreads is ignored.
+        if (VirtualThreads.isVirtual(threadsMode)) {
+            this.executor = VirtualThreads.newThreadPerTaskExecutor("openrouter-virtual-");
+            this.responseExecutor = VirtualThreads.newThreadPerTaskExecutor("openrouter-response-virtual-");
+        } else {
+            this.executor = Executors.newFixedThreadPool(executorThreads, daemonThreads("openrouter-"));
+            this.responseExecutor = Executors.newCachedThreadPool(daemonThreads("openrouter-response-"));
+        }
+        // Only fires deadlines: the tasks complete a future and close a body, nothing blocks
+        this.timeouts = Executors.newSingleThreadScheduledExecutor(daemonThreads("openrouter-timeouts-"));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(executor)
+                .build();
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeouts.shutdownNow();
+        responseExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String model() {
+        return model;
+    }
+
+    @Override
+    public CompletableFuture<LlmCompletion> complete(String prompt, int maxTokens) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = buildRequest(prompt, maxTokens, false);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long startedAt = System.nanoTime();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<LlmCompletion> result = new CompletableFuture<>();
+        AtomicBoolean expired = new AtomicBoolean();
+        CompletableFuture<HttpResponse<byte[]>> exchange = httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+        exchange.whenComplete((response, error) -> sample.stop(requestTimer(response, error, false)))
+                .thenApplyAsync(CorrelationId.wrap(response -> {
+                    byte[] body = response.body();
+                    log.info("AI completion status={} bytes={} elapsedMs={}", response.statusCode(), body.length,
+                            (System.nanoTime() - startedAt) / 1_000_000);
+                    if (CorrelationId.payloadSampled()) {
+                        log.info("AI response body (first 200 chars): {}", preview(body, 200));
+                    }
+                    try {
+                        if (response.statusCode() != 200) {
+                            String errorMsg = errorMessage(body);
+                            if (errorMsg != null) {
+                                throw new Exception("API request failed: " + errorMsg);
+                            }
+                            throw new Exception("API request failed with status: " + response.statusCode() + " - " + preview(body, body.length));
+                        }
+                        return extractCompletion(body);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }), responseExecutor)
+                .whenComplete(completeUnlessExpired(result, expired));
+        // Cancelling the exchange aborts a body that is still being received
+        return withDeadline(result, expired, () -> exchange.cancel(true));
+    }
+
+    // Asks for "stream": true and reads the SSE lines lazily from the connection, so nothing
+    // is buffered beyond the current chunk. Token usage arrives in the last chunk. The read
+    // blocks a responseExecutor thread until the stream ends, or until a deadline closes the body.
+    @Override
+    public CompletableFuture<LlmCompletion> stream(String prompt, int maxTokens, Consumer<String> onDelta) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = buildRequest(prompt, maxTokens, true);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long startedAt = System.nanoTime();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<LlmCompletion> result = new CompletableFuture<>();
+        AtomicBoolean expired = new AtomicBoolean();
+        AtomicReference<InputStream> openBody = new AtomicReference<>();
+        CompletableFuture<HttpResponse<InputStream>> exchange = httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+        Runnable abort = () -> {
+            exchange.cancel(true);
+            closeQuietly(openBody.get());
+        };
+        exchange.whenComplete((response, error) -> sample.stop(requestTimer(response, error, true)))
+                .thenApplyAsync(CorrelationId.wrap(response -> {
+                    openBody.set(response.body());
+                    // A deadline that fired before the body was published could not close it
+                    if (result.isDone()) {
+                        closeQuietly(response.body());
+                    }
+                    try {
+                        return readStream(response, result, expired, abort, onDelta, startedAt);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    } finally {
+                        closeQuietly(response.body());
+                    }
+                }), responseExecutor)
+                .whenComplete(completeUnlessExpired(result, expired));
+        return withDeadline(result, expired, abort);
+    }
+
+    private LlmCompletion readStream(HttpResponse<InputStream> response, CompletableFuture<LlmCompletion> result,
+                                     AtomicBoolean expired, Runnable abort, Consumer<String> onDelta, long startedAt) throws Exception {
+        // Deadlines close the body underneath this reader, never the reader itself:
+        // BufferedReader.close() would wait for the lock held by a blocked readLine()
+        BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+        if (response.statusCode() != 200) {
+            String errorBody = reader.lines().collect(Collectors.joining("\n"));
+            throw new Exception("API request failed with status: " + response.statusCode() + " - " + errorBody);
+        }
+        StringBuilder assembled = new StringBuilder();
+        LlmCompletion usage = null;
+        ScheduledFuture<?> idle = scheduleIdleTimeout(result, expired, abort);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                idle.cancel(false);
+                idle = scheduleIdleTimeout(result, expired, abort);
+                if (isStreamTerminator(line)) {
+                    break;
+                }
+                LlmCompletion chunk = extractStreamChunk(line);
+                if (chunk == null) {
+                    continue;
+                }
+                String delta = chunk.text();
+                if (delta != null && !delta.isEmpty()) {
+                    assembled.append(delta);
+                    onDelta.accept(delta);
+                }
+                if (chunk.hasUsage()) {
+                    usage = chunk;
+                }
+            }
+        } finally {
+            idle.cancel(false);
+        }
+        if (assembled.length() == 0) {
+            throw new Exception("API stream ended without any content");
+        }
+        log.info("AI stream status={} chars={} elapsedMs={}", response.statusCode(), assembled.length(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return usage == null
+                ? LlmCompletion.of(assembled.toString())
+                : new LlmCompletion(assembled.toString(), usage.promptTokens(), usage.completionTokens());
+    }
+
+    private ScheduledFuture<?> scheduleIdleTimeout(CompletableFuture<LlmCompletion> result, AtomicBoolean expired,
+                                                   Runnable abort) {
+        return timeouts.schedule(() -> expire(result, expired, abort, "AI stream sent nothing for " + streamIdleTimeoutMs + " ms"),
+                streamIdleTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Fails the call once request-timeout-ms has passed without a complete response
+    private CompletableFuture<LlmCompletion> withDeadline(CompletableFuture<LlmCompletion> result, AtomicBoolean expired,
+                                                          Runnable abort) {
+        ScheduledFuture<?> deadline = timeouts.schedule(() -> expire(result, expired, abort,
+                "AI response not complete within " + requestTimeout.toMillis() + " ms"), requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((completion, error) -> deadline.cancel(false));
+        return result;
+    }
+
+    // Aborts before failing the call, so the aborted exchange is already recorded in
+    // openrouter.requests when the caller sees the timeout. The expired flag keeps the failure the
+    // abort causes (a cancelled exchange, a closed body) from reaching the caller instead.
+    private static void expire(CompletableFuture<LlmCompletion> result, AtomicBoolean expired, Runnable abort,
+                               String message) {
+        if (result.isDone() || !expired.compareAndSet(false, true)) {
+            return;
+        }
+        abort.run();
+        if (result.completeExceptionally(new HttpTimeoutException(message))) {
+            log.warn(message);
+        }
+    }
+
+    // Hands the outcome of the response handling to the call's result, unless a deadline has
+    // taken over completing it
+    private static BiConsumer<LlmCompletion, Throwable> completeUnlessExpired(CompletableFuture<LlmCompletion> result,
+                                                                          AtomicBoolean expired) {
+        return (completion, error) -> {
+            if (expired.get()) {
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (error != null) {
+                result.completeExceptionally(cause);
+            } else {
+                result.complete(completion);
+            }
+        };
+    }
+
+    private static void closeQuietly(InputStream body) {
+        if (body == null) {
+            return;
+        }
+        try {
+            body.close();
+        } catch (IOException e) {
+            // Already failed; the read sees the stream closed
+        }
+    }
+
+    // openrouter.requests: HTTP round trips to OpenRouter by status code, or "timeout"/"io_error"
+    // when no response arrived. Completions are timed to the full body, streams to the headers.
+    // Exchanges are only cancelled by a deadline, so a cancellation counts as a timeout.
+    private Timer requestTimer(HttpResponse<?> response, Throwable error, boolean stream) {
+        String status;
+        if (response != null) {
+            status = String.valueOf(response.statusCode());
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            status = cause instanceof HttpTimeoutException || cause instanceof CancellationException ? "timeout" : "io_error";
+        }
+        return Timer.builder("openrouter.requests")
+                .description("HTTP requests to the OpenRouter chat completions API")
+                .tag("status", status)
+                .tag("stream", String.valueOf(stream))
+                .tag("model", model)
+                .register(meterRegistry);
+    }
+
+    private HttpRequest buildRequest(String prompt, int maxTokens, boolean stream) throws IOException {
+        String apiKey = getApiKey();
+        if (apiKey == null || apiKey.isEmpty()) {
+            throw new IllegalStateException("API key not available");
+        }
+
+        log.debug("AI request model={} url={}/chat/completions stream={}", model, baseUrl, stream);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder();
+        // Lets a request be matched with the provider's records when debugging a failed generation
+        String correlationId = CorrelationId.current();
+        if (correlationId != null) {
+            builder.header(CorrelationId.HEADER, correlationId);
+        }
+        return builder
+                .uri(URI.create(baseUrl + "/chat/completions"))
+                .header("Content-Type", "application/json")
+                .header("Accept", stream ? "text/event-stream" : "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .header("HTTP-Referer", "http://localhost:5173")
+                .header("X-Title", "Job Suggestions App")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody(prompt, maxTokens, stream)))
+                .timeout(requestTimeout)
+                .build();
+    }
+
+    // {"model": ..., "messages": [{"role": "user", "content": prompt}], "max_tokens": ...,
+    //  "stream": true, "stream_options": {"include_usage": true}}
+    byte[] requestBody(String prompt, int maxTokens, boolean stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(prompt.length() + 128);
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("model", model);
+            generator.writeArrayFieldStart("messages");
+            generator.writeStartObject();
+            generator.writeStringField("role", "user");
+            generator.writeStringField("content", prompt);
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeNumberField("max_tokens", maxTokens);
+            if (stream) {
+                generator.writeBooleanField("stream", true);
+                // Streams only report token usage (in a final chunk) when asked to
+                generator.writeObjectFieldStart("stream_options");
+                generator.writeBooleanField("include_usage", true);
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    // Get API key from environment variable or use provided key
+    // To use your own API key, set the OPENROUTER_API_KEY environment variable
+    private String getApiKey() {
+        String apiKey = System.getenv("OPENROUTER_API_KEY");
+        if (apiKey == null || apiKey.trim().isEmpty()) {
+            // Default OpenRouter API key
+            apiKey = "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";
+        }
+        return apiKey.trim();
+    }
+
+    // choices[0].message.content of a chat completion response
+    static LlmCompletion extractCompletion(byte[] body) throws Exception {
+        LlmCompletion completion;
+        try (JsonParser parser = JSON.createParser(body)) {
+            completion = parseCompletion(parser, "message");
+        }
+        if (completion != null && completion.text() != null) {
+            return completion;
+        }
+        throw new Exception("Unexpected API response format: " + preview(body, body.length));
+    }
+
+    static boolean isStreamTerminator(String line) {
+        return line.startsWith("data:") && line.substring(5).trim().equals("[DONE]");
+    }
+
+    // Pulls choices[0].delta.content out of a single "data: {...}" SSE line. Comment lines
+    // (": OPENROUTER PROCESSING"), blank separators and role-only chunks yield null.
+    static String extractStreamDelta(String line) throws Exception {
+        LlmCompletion chunk = extractStreamChunk(line);
+        return chunk == null ? null : chunk.text();
+    }
+
+    // The delta text (possibly null) and usage of one SSE line, or null for lines without a payload
+    static LlmCompletion extractStreamChunk(String line) throws Exception {
+        if (!line.startsWith("data:")) {
+            return null;
+        }
+        String payload = line.substring(5).trim();
+        if (payload.isEmpty() || payload.equals("[DONE]")) {
+            return null;
+        }
+        try (JsonParser parser = JSON.createParser(payload)) {
+            return parseCompletion(parser, "delta");
+        }
+    }
+
+    // Walks the top-level object for choices[0].<container>.content and usage.prompt_tokens /
+    // usage.completion_tokens, skipping every other field without materializing it. Throws if
+    // the object carries an "error" field.
+    private static LlmCompletion parseCompletion(JsonParser parser, String container) throws Exception {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        String content = null;
+        Integer promptTokens = null;
+        Integer completionTokens = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("error".equals(field)) {
+                throw new Exception("API error: " + readErrorMessage(parser, value));
+            }
+            if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                content = readChoiceContent(parser, container);
+            } else if ("usage".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String usageField = parser.getCurrentName();
+                    JsonToken usageValue = parser.nextToken();
+                    if (usageValue == JsonToken.VALUE_NUMBER_INT && "prompt_tokens".equals(usageField)) {
+                        promptTokens = parser.getIntValue();
+                    } else if (usageValue == JsonToken.VALUE_NUMBER_INT && "completion_tokens".equals(usageField)) {
+                        completionTokens = parser.getIntValue();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new LlmCompletion(content, promptTokens, completionTokens);
+    }
+
+    // Reads choices[0].<container>.content with the parser on the array's START_ARRAY, and
+    // leaves it on the matching END_ARRAY
+    private static String readChoiceContent(JsonParser parser, String container) throws IOException {
+        String content = null;
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String choiceField = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_OBJECT && container.equals(choiceField)) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String messageField = parser.getCurrentName();
+                        JsonToken messageValue = parser.nextToken();
+                        if ("content".equals(messageField) && messageValue == JsonToken.VALUE_STRING) {
+                            content = parser.getText();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            token = parser.nextToken();
+        }
+        while (token != null && token != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+            token = parser.nextToken();
+        }
+        return content;
+    }
+
+    private static String readErrorMessage(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        String message = null;
+        if (value == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken fieldValue = parser.nextToken();
+                if ("message".equals(field) && fieldValue == JsonToken.VALUE_STRING) {
+                    message = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return message != null ? message : "unknown error";
+    }
+
+    // error.message of a failed response, or null if the body is not a JSON error object
+    static String errorMessage(byte[] body) {
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("error".equals(field) && value == JsonToken.START_OBJECT) {
+                    String message = readErrorMessage(parser, value);
+                    return "unknown error".equals(message) ? null : message;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // Not JSON - the caller falls back to the status code
+        }
+        return null;
+    }
+
+    private static String preview(byte[] body, int maxBytes) {
+        return new String(body, 0, Math.min(maxBytes, body.length), StandardCharsets.UTF_8);
+    }
+}
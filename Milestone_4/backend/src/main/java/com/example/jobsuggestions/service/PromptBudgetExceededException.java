@@ -0,0 +1,9 @@
+package com.example.jobsuggestions.service;
+
+// The survey answers cannot fit the prompt token budget even with every value trimmed
+public class PromptBudgetExceededException extends IllegalArgumentException {
+
+    public PromptBudgetExceededException(String message) {
+        super(message);
+    }
+}
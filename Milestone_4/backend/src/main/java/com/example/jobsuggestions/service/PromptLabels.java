@@ -0,0 +1,43 @@
+package com.example.jobsuggestions.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Turns camelCase answer keys into prompt labels ("workHistory" -> "work History"), the same
+// output as key.replaceAll("([A-Z])", " $1").trim() but without compiling a regex per key.
+// The survey only has a handful of keys, so labels are cached; keys come from the request
+// body, so the cache is capped and anything past the cap is just converted each time.
+final class PromptLabels {
+
+    static final int MAX_CACHED_LABELS = 512;
+
+    private static final Map<String, String> LABELS = new ConcurrentHashMap<>();
+
+    private PromptLabels() {
+    }
+
+    static String labelFor(String key) {
+        String label = LABELS.get(key);
+        if (label != null) {
+            return label;
+        }
+        label = humanize(key);
+        if (LABELS.size() < MAX_CACHED_LABELS) {
+            LABELS.putIfAbsent(key, label);
+        }
+        return label;
+    }
+
+    static String humanize(String key) {
+        StringBuilder label = new StringBuilder(key.length() + 4);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                label.append(' ');
+            }
+            label.append(c);
+        }
+        String trimmed = label.toString().trim();
+        return trimmed.isEmpty() ? key : trimmed;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.jobsuggestions.service;
+
+import java.util.Map;
+
+// A versioned prompt: fixed text before and after the survey answers, with one
+// "- <label>: <value>" line per answer in between. The fixed segments are built once when the
+// template is registered; rendering sizes its buffer up front so a prompt costs one char
+// array plus the resulting String.
+public final class PromptTemplate {
+
+    static final String TRUNCATION_MARKER = "...";
+
+    private final String id;
+    private final String header;
+    private final String footer;
+
+    PromptTemplate(String id, String header, String footer) {
+        this.id = id;
+        this.header = header;
+        this.footer = footer;
+    }
+
+    // Stored on each Suggestion as its prompt version
+    public String getId() {
+        return id;
+    }
+
+    public String render(Map<String, String> answers) {
+        return render(answers, Integer.MAX_VALUE);
+    }
+
+    // Answer values longer than maxValueLength are cut and marked with "..."
+    String render(Map<String, String> answers, int maxValueLength) {
+        StringBuilder prompt = new StringBuilder(renderedLength(answers, maxValueLength));
+        prompt.append(header);
+        for (Map.Entry<String, String> entry : answers.entrySet()) {
+            String value = String.valueOf(entry.getValue());
+            prompt.append("- ").append(PromptLabels.labelFor(entry.getKey())).append(": ");
+            if (value.length() > maxValueLength) {
+                prompt.append(value, 0, maxValueLength).append(TRUNCATION_MARKER);
+            } else {
+                prompt.append(value);
+            }
+            prompt.append('\n');
+        }
+        prompt.append(footer);
+        return prompt.toString();
+    }
+
+    int renderedLength(Map<String, String> answers, int maxValueLength) {
+        int length = fixedLength(answers);
+        for (String value : answers.values()) {
+            int valueLength = String.valueOf(value).length();
+            length += valueLength > maxValueLength ? maxValueLength + TRUNCATION_MARKER.length() : valueLength;
+        }
+        return length;
+    }
+
+    // Everything except the answer values: header, footer and the label part of each line
+    int fixedLength(Map<String, String> answers) {
+        int length = header.length() + footer.length();
+        for (String key : answers.keySet()) {
+            length += PromptLabels.labelFor(key).length() + 5; // "- ", ": " and '\n'
+        }
+        return length;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.jobsuggestions.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Registry of prompt templates by id. suggestions.prompt.template picks the one used for new
+// generations; its id is recorded on every Suggestion and is part of the cache fingerprint.
+// Add a new id instead of editing an existing template's text, so stored suggestions keep
+// pointing at the prompt that actually produced them.
+@Component
+public class PromptTemplates {
+
+    private static final Logger log = LoggerFactory.getLogger(PromptTemplates.class);
+
+    public static final String CAREER_V1 = "career-v1";
+    public static final String CAREER_V2 = "career-v2";
+
+    // Values are never cut below this many characters; past that the prompt is rejected
+    static final int MIN_VALUE_LENGTH = 40;
+
+    private final Map<String, PromptTemplate> templates = new LinkedHashMap<>();
+    private final PromptTemplate active;
+    private final int maxPromptTokens;
+
+    @Autowired
+    public PromptTemplates(@Value("${suggestions.prompt.template:" + CAREER_V1 + "}") String activeId,
+                           @Value("${suggestions.prompt.max-tokens:3000}") int maxPromptTokens) {
+        // The original prompt, kept byte-for-byte
+        register(new PromptTemplate(CAREER_V1,
+                "You are an expert career counselor. Analyze ALL of the user's survey responses below and produce personalized job suggestions.\n\n"
+                        + "IMPORTANT: You must consider ALL of the following information when making suggestions:\n"
+                        + "- Work History: Their past experience\n"
+                        + "- Skills: Their technical and soft skills\n"
+                        + "- Personality Traits: Their personality and work style\n"
+                        + "- Location Preference: Where they want to work\n"
+                        + "- Role Preference: Their desired role (but don't limit yourself to just this)\n\n"
+                        + "User's complete survey responses:\n",
+                "\nBased on ALL of the above information (work history, skills, personality, location, AND role preference), provide 5 diverse and personalized job role suggestions.\n"
+                        + "For each suggestion, include:\n"
+                        + "1. Job Title\n"
+                        + "2. Why this role matches their skills, experience, and personality\n"
+                        + "3. 2 practical next steps to pursue this role\n\n"
+                        + "Make the suggestions diverse and consider different career paths, not just variations of their role preference."));
+
+        // Same instructions in roughly half the tokens
+        register(new PromptTemplate(CAREER_V2,
+                "You are an expert career counselor. Suggest 5 diverse job roles that fit ALL of the survey answers below "
+                        + "(work history, skills, personality, location and role preference - do not stick to the preferred role only).\n\n"
+                        + "Survey answers:\n",
+                "\nFor each role give:\n"
+                        + "1. Job Title\n"
+                        + "2. Why it matches their skills, experience, and personality\n"
+                        + "3. 2 practical next steps"));
+
+        this.active = get(activeId);
+        this.maxPromptTokens = maxPromptTokens;
+    }
+
+    private void register(PromptTemplate template) {
+        templates.put(template.getId(), template);
+    }
+
+    public PromptTemplate get(String id) {
+        PromptTemplate template = templates.get(id);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown prompt template: " + id + " (known: " + templates.keySet() + ")");
+        }
+        return template;
+    }
+
+    public PromptTemplate active() {
+        return active;
+    }
+
+    public Set<String> ids() {
+        return templates.keySet();
+    }
+
+    // Renders the prompt for the answers, trimming the longest answer values just enough to
+    // fit suggestions.prompt.max-tokens. Throws PromptBudgetExceededException if even values
+    // cut to MIN_VALUE_LENGTH do not fit.
+    public String render(PromptTemplate template, Map<String, String> answers) {
+        int charBudget = TokenEstimator.charBudget(maxPromptTokens);
+        if (template.renderedLength(answers, Integer.MAX_VALUE) <= charBudget) {
+            return template.render(answers);
+        }
+        if (template.renderedLength(answers, MIN_VALUE_LENGTH) > charBudget) {
+            throw new PromptBudgetExceededException("Survey answers are too long: the prompt would need about "
+                    + TokenEstimator.estimate(template.renderedLength(answers, MIN_VALUE_LENGTH))
+                    + " tokens, the limit is " + maxPromptTokens);
+        }
+
+        // Largest per-value length that still fits; renderedLength grows with the cap
+        int low = MIN_VALUE_LENGTH;
+        int high = longestValue(answers);
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (template.renderedLength(answers, mid) <= charBudget) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        log.info("Prompt over budget, answer values trimmed to {} chars", low);
+        return template.render(answers, low);
+    }
+
+    private static int longestValue(Map<String, String> answers) {
+        int longest = 0;
+        for (String value : answers.values()) {
+            longest = Math.max(longest, String.valueOf(value).length());
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.jobsuggestions.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// In-process stand-in for OpenRouter (llm.provider=stub) used to measure throughput offline.
+// Answers with deterministic text derived from the prompt after llm.stub.latency-ms plus
+// llm.stub.ms-per-token for every completion token, using a delayed executor so the simulated
+// wait holds no thread, like a real non-blocking call. The text is cut at max_tokens and the
+// usage is reported with TokenEstimator's counts.
+@Component
+@ConditionalOnProperty(name = "llm.provider", havingValue = "stub")
+public class StubLlmClient implements LlmClient {
+
+    static final String MODEL = "local/stub";
+
+    private static final String[] ROLES = {
+            "Web Developer", "Data Analyst", "Project Coordinator", "Customer Success Manager",
+            "QA Engineer", "Technical Writer", "Operations Specialist", "UX Researcher"
+    };
+
+    private final long latencyMs;
+    private final double msPerToken;
+    private final int streamChunks;
+
+    @Autowired
+    public StubLlmClient(@Value("${llm.stub.latency-ms:0}") long latencyMs,
+                         @Value("${llm.stub.ms-per-token:0}") double msPerToken,
+                         @Value("${llm.stub.stream-chunks:20}") int streamChunks) {
+        this.latencyMs = latencyMs;
+        this.msPerToken = msPerToken;
+        this.streamChunks = Math.max(1, streamChunks);
+    }
+
+    @Override
+    public String model() {
+        return MODEL;
+    }
+
+    @Override
+    public CompletableFuture<LlmCompletion> complete(String prompt, int maxTokens) {
+        LlmCompletion completion = completionFor(prompt, maxTokens);
+        return CompletableFuture.supplyAsync(() -> completion, delayed(latencyFor(completion)));
+    }
+
+    // The latency is spread over the chunks, so deltas arrive at a steady pace
+    @Override
+    public CompletableFuture<LlmCompletion> stream(String prompt, int maxTokens, Consumer<String> onDelta) {
+        LlmCompletion completion = completionFor(prompt, maxTokens);
+        String text = completion.text();
+        int chunkLength = (text.length() + streamChunks - 1) / streamChunks;
+        long chunkDelayMs = latencyFor(completion) / streamChunks;
+
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (int start = 0; start < text.length(); start += chunkLength) {
+            String delta = text.substring(start, Math.min(text.length(), start + chunkLength));
+            chain = chain.thenRunAsync(() -> onDelta.accept(delta), delayed(chunkDelayMs));
+        }
+        return chain.thenApply(ignored -> completion);
+    }
+
+    private long latencyFor(LlmCompletion completion) {
+        return latencyMs + Math.round(msPerToken * completion.completionTokens());
+    }
+
+    static LlmCompletion completionFor(String prompt, int maxTokens) {
+        String text = suggestionsFor(prompt);
+        int charBudget = TokenEstimator.charBudget(Math.max(1, maxTokens));
+        if (text.length() > charBudget) {
+            text = text.substring(0, charBudget);
+        }
+        return new LlmCompletion(text, TokenEstimator.estimate(prompt), TokenEstimator.estimate(text));
+    }
+
+    private static Executor delayed(long delayMs) {
+        return CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    static String suggestionsFor(String prompt) {
+        int seed = Math.floorMod(prompt.hashCode(), ROLES.length);
+        StringBuilder text = new StringBuilder(1024);
+        for (int i = 0; i < 5; i++) {
+            String role = ROLES[(seed + i) % ROLES.length];
+            text.append(i + 1).append(". Job Title: ").append(role).append('\n')
+                    .append("   Why: This role fits the skills, experience and personality described in the survey.\n")
+                    .append("   Next steps: Update your resume for ").append(role)
+                    .append(" openings; reach out to two people working in the role.\n\n");
+        }
+        return text.toString();
+    }
+}
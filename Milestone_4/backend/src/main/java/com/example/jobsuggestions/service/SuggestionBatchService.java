@@ -0,0 +1,192 @@
+package com.example.jobsuggestions.service;
+
+import com.example.jobsuggestions.config.CorrelationId;
+import com.example.jobsuggestions.model.Suggestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Generates suggestions for many answer sets of one user (POST /api/suggestions/batch).
+//
+// Entry numbers for the whole batch are reserved up front as one contiguous block, so item i
+// always becomes entry first + i; items that fail leave their number unused, as deleted entries
+// do. At most `parallelism` generations are in flight, and each one that finishes starts the
+// next. Finished items queue up and are saved by whichever thread finds no save in progress:
+// everything queued so far goes in one transaction as batched inserts, so a burst of completions
+// costs one round trip instead of a transaction each. Outcomes are reported in completion order,
+// one at a time.
+@Service
+public class SuggestionBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionBatchService.class);
+
+    // saved is null when the item failed; entryNumber is the number reserved for it either way
+    public record Outcome(int index, int entryNumber, Suggestion saved, String error) {
+
+        public boolean succeeded() {
+            return saved != null;
+        }
+    }
+
+    private record Finished(int index, GeneratedSuggestions suggestions, String error) {
+    }
+
+    private static final class Batch {
+        final Long userId;
+        final List<Map<String, String>> items;
+        final int firstEntryNumber;
+        final Consumer<Outcome> onOutcome;
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger reported = new AtomicInteger();
+        final Queue<Finished> finished = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean saving = new AtomicBoolean();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Batch(Long userId, List<Map<String, String>> items, int firstEntryNumber, Consumer<Outcome> onOutcome) {
+            this.userId = userId;
+            this.items = items;
+            this.firstEntryNumber = firstEntryNumber;
+            this.onOutcome = onOutcome;
+        }
+    }
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private EntryNumberAllocator entryNumberAllocator;
+
+    @Value("${suggestions.batch.parallelism:4}")
+    private int parallelism;
+
+    // Starts the batch and returns at once. onOutcome is called once per item, never concurrently;
+    // if it throws (the client went away) no further items are started and the future fails.
+    public CompletableFuture<Void> submit(Long userId, List<Map<String, String>> items, Consumer<Outcome> onOutcome) {
+        int firstEntryNumber = entryNumberAllocator.allocate(userId, items.size());
+        log.info("Starting batch of {} suggestions for user {} (entries {}-{}, parallelism {})",
+                items.size(), userId, firstEntryNumber, firstEntryNumber + items.size() - 1, parallelism);
+
+        Batch batch = new Batch(userId, items, firstEntryNumber, onOutcome);
+        int initial = Math.min(Math.max(1, parallelism), items.size());
+        for (int i = 0; i < initial; i++) {
+            startNext(batch);
+        }
+        return batch.done;
+    }
+
+    private void startNext(Batch batch) {
+        if (batch.done.isDone()) {
+            return;
+        }
+        int index = batch.next.getAndIncrement();
+        if (index >= batch.items.size()) {
+            return;
+        }
+        Map<String, String> answers = batch.items.get(index);
+        if (answers == null || answers.isEmpty()) {
+            finish(batch, new Finished(index, null, "Answers cannot be empty"));
+            return;
+        }
+        CompletableFuture<GeneratedSuggestions> generation;
+        try {
+            generation = suggestionService.generateWithFallbackAsync(answers);
+        } catch (RuntimeException e) {
+            generation = CompletableFuture.failedFuture(e);
+        }
+        generation.whenComplete(CorrelationId.wrapCompletion((suggestions, error) -> finish(batch, error == null
+                ? new Finished(index, suggestions, null)
+                : new Finished(index, null, "AI generation failed: " + rootCause(error).getMessage()))));
+    }
+
+    private void finish(Batch batch, Finished item) {
+        batch.finished.add(item);
+        startNext(batch);
+        drain(batch);
+    }
+
+    // Group commit: one thread at a time saves everything queued. A thread that finds a save in
+    // progress leaves its item to that thread, which checks the queue again before letting go.
+    private void drain(Batch batch) {
+        while (!batch.finished.isEmpty() && batch.saving.compareAndSet(false, true)) {
+            try {
+                List<Finished> group = new ArrayList<>();
+                Finished item;
+                while ((item = batch.finished.poll()) != null) {
+                    group.add(item);
+                }
+                save(batch, group);
+            } finally {
+                batch.saving.set(false);
+            }
+        }
+    }
+
+    private void save(Batch batch, List<Finished> group) {
+        List<Finished> generated = new ArrayList<>();
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (Finished item : group) {
+            if (item.error() != null) {
+                report(batch, new Outcome(item.index(), entryNumber(batch, item), null, item.error()));
+            } else {
+                generated.add(item);
+                suggestions.add(suggestionService.newSuggestion(batch.userId, entryNumber(batch, item),
+                        batch.items.get(item.index()), item.suggestions()));
+            }
+        }
+        if (suggestions.isEmpty()) {
+            return;
+        }
+
+        List<Suggestion> saved;
+        try {
+            saved = suggestionService.insertSuggestions(suggestions);
+        } catch (RuntimeException e) {
+            log.error("Saving {} batch suggestions for user {} failed", suggestions.size(), batch.userId, e);
+            for (Finished item : generated) {
+                report(batch, new Outcome(item.index(), entryNumber(batch, item), null, "Saving failed: " + e.getMessage()));
+            }
+            return;
+        }
+        for (int i = 0; i < generated.size(); i++) {
+            Finished item = generated.get(i);
+            report(batch, new Outcome(item.index(), entryNumber(batch, item), saved.get(i), null));
+        }
+    }
+
+    private void report(Batch batch, Outcome outcome) {
+        if (batch.done.isDone()) {
+            return;
+        }
+        try {
+            batch.onOutcome.accept(outcome);
+        } catch (RuntimeException e) {
+            log.warn("Batch for user {} abandoned after {} items: {}", batch.userId, batch.reported.get(), e.getMessage());
+            batch.done.completeExceptionally(e);
+            return;
+        }
+        if (batch.reported.incrementAndGet() == batch.items.size()) {
+            batch.done.complete(null);
+        }
+    }
+
+    private static int entryNumber(Batch batch, Finished item) {
+        return batch.firstEntryNumber + item.index();
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
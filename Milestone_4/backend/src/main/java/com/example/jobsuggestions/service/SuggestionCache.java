@@ -0,0 +1,58 @@
+package com.example.jobsuggestions.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// Caches AI-generated suggestion text by a canonical fingerprint of the survey answers, so
+// repeat submissions of the same answers skip the OpenRouter round trip entirely.
+@Component
+public class SuggestionCache {
+
+    private final WeightedLruCache<String, String> cache;
+
+    public SuggestionCache(@Value("${suggestions.cache.max-weight-chars:4000000}") long maxWeightChars,
+                           @Value("${suggestions.cache.ttl-minutes:60}") long ttlMinutes) {
+        // Weight is the text length in chars plus a fixed allowance for the key and entry overhead
+        this.cache = new WeightedLruCache<>(maxWeightChars, TimeUnit.MINUTES.toNanos(ttlMinutes),
+                suggestions -> suggestions.length() + 128);
+    }
+
+    public String get(String fingerprint) {
+        return cache.get(fingerprint);
+    }
+
+    public void put(String fingerprint, String suggestions) {
+        cache.put(fingerprint, suggestions);
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    // Keys are sorted and values trimmed and case-folded, so answer maps that differ only in
+    // ordering, whitespace or capitalisation share a fingerprint. The model and prompt version
+    // are part of the key because either one changes the text produced for the same answers.
+    public static String fingerprint(Map<String, String> answers, String model, String promptVersion) {
+        StringBuilder canonical = new StringBuilder(256);
+        canonical.append(model).append('\n').append(promptVersion).append('\n');
+        for (Map.Entry<String, String> entry : new TreeMap<>(answers).entrySet()) {
+            String value = entry.getValue() == null ? "" : entry.getValue().trim().toLowerCase(Locale.ROOT);
+            canonical.append(entry.getKey()).append('\u0000').append(value).append('\u0001');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
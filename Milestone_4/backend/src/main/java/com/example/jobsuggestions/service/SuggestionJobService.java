@@ -0,0 +1,95 @@
+package com.example.jobsuggestions.service;
+
+import com.example.jobsuggestions.config.CorrelationId;
+import com.example.jobsuggestions.model.SuggestionJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class SuggestionJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionJobService.class);
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Value("${suggestions.jobs.retention-minutes:10}")
+    private long retentionMinutes;
+
+    @Value("${suggestions.jobs.pending-timeout-minutes:2}")
+    private long pendingTimeoutMinutes;
+
+    @Value("${suggestions.jobs.max-jobs:10000}")
+    private int maxJobs;
+
+    private final Map<String, SuggestionJob> jobs = new ConcurrentHashMap<>();
+
+    // Starts AI generation without blocking the caller. The returned job is PENDING until
+    // the OpenRouter response arrives and the suggestion has been saved. When max-jobs are
+    // already held even after a purge, the job is refused with a 503 instead of growing the map.
+    public SuggestionJob submit(Long userId, Map<String, String> answers) {
+        if (jobs.size() >= maxJobs) {
+            purgeExpiredJobs();
+            if (jobs.size() >= maxJobs) {
+                throw new AiUnavailableException("Too many suggestion jobs in progress. Please try again shortly.", 1);
+            }
+        }
+
+        SuggestionJob job = new SuggestionJob(userId);
+        jobs.put(job.getId(), job);
+
+        suggestionService.generateWithFallbackAsync(answers)
+                .thenApply(CorrelationId.wrap(suggestions -> suggestionService.saveSuggestion(userId, answers, suggestions)))
+                .whenComplete(CorrelationId.wrapCompletion((saved, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        log.warn("Async suggestion job {} failed: {}", job.getId(), cause.getMessage());
+                        job.fail("AI generation failed: " + cause.getMessage());
+                    } else {
+                        job.complete(saved);
+                    }
+                }));
+
+        return job;
+    }
+
+    // Jobs are only visible to the user that submitted them. A job read after its pending
+    // timeout is failed right away rather than at the next scheduled purge.
+    public SuggestionJob getJob(String jobId, Long userId) {
+        SuggestionJob job = jobs.get(jobId);
+        if (job == null || !job.getUserId().equals(userId)) {
+            return null;
+        }
+        expireIfStale(job, LocalDateTime.now().minusMinutes(pendingTimeoutMinutes));
+        return job;
+    }
+
+    // Fails jobs whose generation never finished (the AI call and its guard have deadlines of
+    // their own, so this only catches what slipped past them), then drops finished jobs once
+    // they are past retention
+    @Scheduled(fixedDelayString = "${suggestions.jobs.purge-interval-ms:30000}")
+    public void purgeExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime pendingCutoff = now.minusMinutes(pendingTimeoutMinutes);
+        LocalDateTime retentionCutoff = now.minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            expireIfStale(job, pendingCutoff);
+            return job.isFinished() && job.getCompletedAt().isBefore(retentionCutoff);
+        });
+    }
+
+    private void expireIfStale(SuggestionJob job, LocalDateTime pendingCutoff) {
+        if (job.expireIfPendingSince(pendingCutoff, "AI generation timed out")) {
+            log.warn("Async suggestion job {} still pending after {} minutes, marked failed", job.getId(), pendingTimeoutMinutes);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.jobsuggestions.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Keeps the encoded JSON of GET /api/suggestions/{entryNumber} per suggestion version, so a read
+// that finds it skips loading the row and serializing it. The version is part of the key: a
+// reader always looks up the version the database currently has, so an entry can never be served
+// after its row changed. Updates and deletes still evict the user's older entries to free the
+// space. The gzip-compressed bytes are added the first time a client asks for them.
+@Component
+public class SuggestionPayloadCache {
+
+    public record Payload(byte[] json, byte[] gzip) {
+
+        public Payload withGzip(byte[] gzip) {
+            return new Payload(json, gzip);
+        }
+    }
+
+    private record Key(Long userId, int entryNumber, Long version) {
+    }
+
+    private final WeightedLruCache<Key, Payload> cache;
+
+    public SuggestionPayloadCache(@Value("${suggestions.payload-cache.max-bytes:16000000}") long maxBytes,
+                                  @Value("${suggestions.payload-cache.ttl-minutes:60}") long ttlMinutes) {
+        // Weight is the stored bytes plus a fixed allowance for the key and entry overhead
+        this.cache = new WeightedLruCache<>(maxBytes, TimeUnit.MINUTES.toNanos(ttlMinutes),
+                payload -> payload.json().length + (payload.gzip() == null ? 0 : payload.gzip().length) + 128);
+    }
+
+    public Payload get(Long userId, int entryNumber, Long version) {
+        return cache.get(new Key(userId, entryNumber, version));
+    }
+
+    public void put(Long userId, int entryNumber, Long version, Payload payload) {
+        cache.put(new Key(userId, entryNumber, version), payload);
+    }
+
+    public void evict(Long userId, Collection<Integer> entryNumbers) {
+        cache.removeIf(key -> key.userId().equals(userId) && entryNumbers.contains(key.entryNumber()));
+    }
+
+    public void evictUser(Long userId) {
+        cache.removeIf(key -> key.userId().equals(userId));
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+}
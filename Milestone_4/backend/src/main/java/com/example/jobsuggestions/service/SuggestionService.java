@@ -1,215 +1,419 @@
 package com.example.jobsuggestions.service;
 
-import com.example.jobsuggestions.model.SuggestionId;
+import com.example.jobsuggestions.config.CorrelationId;
 
 import com.example.jobsuggestions.model.Suggestion;
-import com.example.jobsuggestions.model.User;
+import com.example.jobsuggestions.model.SuggestionId;
+import com.example.jobsuggestions.model.SuggestionListVersion;
+import com.example.jobsuggestions.model.SuggestionSummary;
 import com.example.jobsuggestions.repository.SuggestionRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.net.http.HttpTimeoutException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class SuggestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionService.class);
     
     @Autowired
     private SuggestionRepository suggestionRepository;
 
-    public List<Suggestion> getAllSuggestionsByUser(User user) {
-        return suggestionRepository.findByUserOrderByEntryNumberAsc(user);
+    @Autowired
+    private SuggestionCache suggestionCache;
+
+    @Autowired
+    private SuggestionPayloadCache suggestionPayloadCache;
+
+    @Autowired
+    private InFlightGenerations inFlightGenerations;
+
+    @Autowired
+    private EntryNumberAllocator entryNumberAllocator;
+
+    @Autowired
+    private PromptTemplates promptTemplates;
+
+    @Autowired
+    private LlmClient llmClient;
+
+    @Autowired
+    private AiCallGuard aiCallGuard;
+
+    @Autowired
+    private LocalSuggestionEngine localSuggestionEngine;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MaxTokensPolicy maxTokensPolicy;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // When the AI call fails, answer from the local rule-based engine instead of erroring
+    @Value("${suggestions.local.fallback-enabled:true}")
+    private boolean localFallbackEnabled;
+
+    @Value("${suggestions.answers.storage:json}")
+    private String answersStorage;
+
+    public List<Suggestion> getAllSuggestionsByUser(Long userId) {
+        return suggestionRepository.findByUserIdOrderByEntryNumberAsc(userId);
+    }
+
+    public List<SuggestionSummary> getSuggestionSummaries(Long userId) {
+        return suggestionRepository.findSummariesByUserId(userId);
     }
 
+    // Hands the user's history summaries to the action one at a time as the rows are fetched,
+    // holding one read-only transaction (and its connection) until the last one is handled
+    @Transactional(readOnly = true)
+    public void forEachSummary(Long userId, Consumer<SuggestionSummary> action) {
+        try (Stream<SuggestionSummary> summaries = suggestionRepository.streamSummariesByUserId(userId)) {
+            summaries.forEach(action);
+        }
+    }
+
+    // Keyset page: the next `limit` summaries after the given entry number, served by an
+    // index seek on (user_id, entry_number) however deep the page is
+    public List<SuggestionSummary> getSuggestionSummariesAfter(Long userId, Integer afterEntryNumber, int limit) {
+        return suggestionRepository.findSummariesByUserIdAfter(userId, afterEntryNumber, PageRequest.of(0, limit));
+    }
+
+    // By primary key, so a suggestion in the second-level cache is returned without a query.
+    // Open-in-view is off, so legacy answer rows are loaded here rather than during serialization.
+    @Transactional(readOnly = true)
     public Suggestion getSuggestionById(Long userId, Integer entryNumber) {
-        return suggestionRepository.findByUserIdAndEntryNumber(userId, entryNumber).orElse(null);
+        Suggestion suggestion = suggestionRepository.findById(new SuggestionId(userId, entryNumber)).orElse(null);
+        if (suggestion != null) {
+            Hibernate.initialize(suggestion.getAnswers());
+        }
+        return suggestion;
     }
 
-    @Transactional
-    public Suggestion createSuggestion(User user, java.util.Map<String, String> answers) throws Exception {
-        System.out.println("=== Creating suggestion with answers: " + answers);
+    // null when the user has no such suggestion
+    public Long getSuggestionVersion(Long userId, Integer entryNumber) {
+        return suggestionRepository.findVersion(userId, entryNumber).orElse(null);
+    }
+
+    public SuggestionListVersion getListVersion(Long userId) {
+        return suggestionRepository.findListVersion(userId);
+    }
+
+    // Not transactional on purpose: no transaction or pooled connection is held while waiting
+    // on OpenRouter. The entry number is allocated and the row inserted once the text is ready.
+    public Suggestion createSuggestion(Long userId, java.util.Map<String, String> answers) throws Exception {
+        log.debug("Creating suggestion for user {}", userId);
+        if (CorrelationId.payloadSampled()) {
+            log.info("Suggestion answers: {}", answers);
+        }
+        GeneratedSuggestions suggestions = await(generateWithFallbackAsync(answers));
         
-        // Calculate user-specific entry number (count existing entries for this user + 1)
-        long existingCount = suggestionRepository.findByUserOrderByEntryNumberAsc(user).size();
-        int entryNumber = (int) existingCount + 1;
-        System.out.println("=== User " + user.getUsername() + " entry number: " + entryNumber);
+        return saveSuggestion(userId, answers, suggestions);
+    }
+
+    // Persists already-generated AI text as the user's next entry. Kept separate from
+    // createSuggestion so the async job path can save once its OpenRouter call completes.
+    @Transactional
+    public Suggestion saveSuggestion(Long userId, java.util.Map<String, String> answers, String suggestions) {
+        return saveSuggestion(userId, answers, GeneratedSuggestions.ai(suggestions));
+    }
+
+    @Transactional
+    public Suggestion saveSuggestion(Long userId, java.util.Map<String, String> answers, GeneratedSuggestions suggestions) {
+        // Allocate the next user-specific entry number from the user's counter
+        int entryNumber = entryNumberAllocator.allocate(userId, 1);
+        log.info("Saving suggestion {} for user {} (aiGenerated={})", entryNumber, userId, suggestions.aiGenerated());
         
-        // MUST use AI - no fallback
-        System.out.println("Generating AI suggestions...");
-        String suggestions = generateJobSuggestionsWithAI(answers);
-        String externalApiData = "{\"integration\": \"OpenAI ChatGPT API\", \"model\": \"" + MODEL + "\", \"status\": \"success\", \"aiGenerated\": true}";
-        System.out.println("AI generation SUCCESS");
+        Suggestion saved = suggestionRepository.save(newSuggestion(userId, entryNumber, answers, suggestions));
+        return saved;
+    }
+
+    // Inserts suggestions built by newSuggestion under already allocated entry numbers, in one
+    // transaction with batched inserts (see SuggestionBatchService)
+    @Transactional
+    public List<Suggestion> insertSuggestions(List<Suggestion> suggestions) {
+        log.info("Inserting {} batch suggestions", suggestions.size());
+        return suggestionRepository.insertAll(suggestions);
+    }
+
+    Suggestion newSuggestion(Long userId, int entryNumber, java.util.Map<String, String> answers, GeneratedSuggestions suggestions) {
+        String externalApiData = suggestions.aiGenerated()
+                ? "{\"integration\": \"OpenAI ChatGPT API\", \"model\": \"" + llmClient.model() + "\", \"status\": \"success\", \"aiGenerated\": true}"
+                : localExternalApiData();
         
-        Suggestion suggestion = new Suggestion(answers, suggestions, user, entryNumber);
+        Suggestion suggestion = new Suggestion(answers, suggestions.text(), userId, entryNumber);
+        applyAnswers(suggestion, answers);
         suggestion.setExternalApiData(externalApiData);
-        
-        Suggestion saved = suggestionRepository.save(suggestion);
-        return saved;
+        suggestion.setPromptVersion(promptVersion(suggestions));
+        suggestion.setPromptTokens(suggestions.promptTokens());
+        suggestion.setCompletionTokens(suggestions.completionTokens());
+        return suggestion;
     }
 
-    public Suggestion updateSuggestion(Long userId, Integer entryNumber, java.util.Map<String, String> answers) throws Exception {
-        Suggestion suggestion = suggestionRepository.findByUserIdAndEntryNumber(userId, entryNumber).orElse(null);
-        if (suggestion != null) {
-            suggestion.setAnswers(answers);
-            // MUST use AI - no fallback
-            suggestion.setSuggestions(generateJobSuggestionsWithAI(answers));
-            String externalApiData = fetchExternalApiData(answers);
+    // Not transactional either: the text is generated first, and only then is the row loaded,
+    // updated and saved in one short transaction. expectedVersion is the version the caller
+    // checked; a row changed or deleted in the meantime is refused as an optimistic lock failure.
+    public Suggestion updateSuggestion(Long userId, Integer entryNumber, Long expectedVersion,
+                                       java.util.Map<String, String> answers) throws Exception {
+        GeneratedSuggestions suggestions = await(generateWithFallbackAsync(answers));
+        String externalApiData = suggestions.aiGenerated() ? fetchExternalApiData(answers) : localExternalApiData();
+
+        Suggestion updated = transactionTemplate.execute(status -> {
+            Suggestion suggestion = suggestionRepository.findById(new SuggestionId(userId, entryNumber)).orElse(null);
+            if (suggestion == null || !suggestion.getVersion().equals(expectedVersion)) {
+                throw new ObjectOptimisticLockingFailureException(Suggestion.class, new SuggestionId(userId, entryNumber));
+            }
+            applyAnswers(suggestion, answers);
+            suggestion.setSuggestions(suggestions.text());
+            suggestion.setPromptVersion(promptVersion(suggestions));
+            suggestion.setPromptTokens(suggestions.promptTokens());
+            suggestion.setCompletionTokens(suggestions.completionTokens());
             suggestion.setExternalApiData(externalApiData);
-            return suggestionRepository.save(suggestion);
+            Suggestion saved = suggestionRepository.save(suggestion);
+            Hibernate.initialize(saved.getAnswers());
+            return saved;
+        });
+        suggestionPayloadCache.evict(userId, List.of(entryNumber));
+        return updated;
+    }
+
+    // JSON column by default; suggestions.answers.storage=table keeps writing the legacy
+    // suggestion_answers rows (e.g. while rolling back to a build that only reads those)
+    private void applyAnswers(Suggestion suggestion, java.util.Map<String, String> answers) {
+        if ("table".equalsIgnoreCase(answersStorage)) {
+            suggestion.setAnswersInTable(answers);
+        } else {
+            suggestion.setAnswers(answers);
         }
-        return null;
     }
 
+    @Transactional
     public boolean deleteSuggestion(Long userId, Integer entryNumber) {
-        SuggestionId id = new SuggestionId(userId, entryNumber);
-        if (suggestionRepository.existsById(id)) {
-            suggestionRepository.deleteById(id);
-            return true;
+        return deleteSuggestions(userId, List.of(entryNumber)) > 0;
+    }
+
+    // Bulk deletes run as two statements in one transaction (legacy answer rows, then the
+    // suggestions, see SuggestionRepository) without loading any entity. They return the number of suggestions deleted;
+    // entry numbers the user does not have are ignored.
+    @Transactional
+    public int deleteSuggestions(Long userId, Collection<Integer> entryNumbers) {
+        if (entryNumbers.isEmpty()) {
+            return 0;
         }
-        return false;
+        int deleted = suggestionRepository.deleteByUserIdAndEntryNumberIn(userId, entryNumbers);
+        suggestionPayloadCache.evict(userId, entryNumbers);
+        log.info("Deleted {} of {} requested suggestions for user {}", deleted, entryNumbers.size(), userId);
+        return deleted;
     }
 
-    private final ObjectMapper mapper = new ObjectMapper();
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private static final String OPENROUTER_BASE_URL = "https://openrouter.ai/api/v1";
-    private static final String MODEL = "openai/gpt-3.5-turbo"; // ChatGPT model via OpenRouter
-    
-    // Get API key from environment variable or use provided key
-    // To use your own API key, set the OPENROUTER_API_KEY environment variable
-    private String getApiKey() {
-        String apiKey = System.getenv("OPENROUTER_API_KEY");
-        if (apiKey == null || apiKey.trim().isEmpty()) {
-            // Default OpenRouter API key
-            apiKey = "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";
-        }
-        return apiKey.trim();
-    }
-
-
-    private String generateJobSuggestionsWithAI(java.util.Map<String, String> answers) throws Exception {
-        String apiKey = getApiKey();
-        if (apiKey == null || apiKey.isEmpty()) {
-            throw new IllegalStateException("API key not available");
-        }
-
-        System.out.println("Using API key: " + (apiKey.length() > 10 ? apiKey.substring(0, 10) + "..." : "***"));
-        System.out.println("Using model: " + MODEL);
-
-        // Build prompt from user answers - emphasize using ALL information
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("You are an expert career counselor. Analyze ALL of the user's survey responses below and produce personalized job suggestions.\n\n");
-        prompt.append("IMPORTANT: You must consider ALL of the following information when making suggestions:\n");
-        prompt.append("- Work History: Their past experience\n");
-        prompt.append("- Skills: Their technical and soft skills\n");
-        prompt.append("- Personality Traits: Their personality and work style\n");
-        prompt.append("- Location Preference: Where they want to work\n");
-        prompt.append("- Role Preference: Their desired role (but don't limit yourself to just this)\n\n");
-        prompt.append("User's complete survey responses:\n");
-        for (Map.Entry<String, String> entry : answers.entrySet()) {
-            String key = entry.getKey();
-            String value = entry.getValue();
-            // Make the labels more readable (convert camelCase to readable format)
-            String readableKey = key.replaceAll("([A-Z])", " $1").trim();
-            if (readableKey.isEmpty()) {
-                readableKey = key;
+    @Transactional
+    public int deleteAllSuggestions(Long userId) {
+        int deleted = suggestionRepository.deleteByUserId(userId);
+        suggestionPayloadCache.evictUser(userId);
+        log.info("Deleted all {} suggestions of user {}", deleted, userId);
+        return deleted;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
             }
-            prompt.append("- ").append(readableKey).append(": ").append(value).append("\n");
-        }
-        prompt.append("\nBased on ALL of the above information (work history, skills, personality, location, AND role preference), provide 5 diverse and personalized job role suggestions.\n");
-        prompt.append("For each suggestion, include:\n");
-        prompt.append("1. Job Title\n");
-        prompt.append("2. Why this role matches their skills, experience, and personality\n");
-        prompt.append("3. 2 practical next steps to pursue this role\n\n");
-        prompt.append("Make the suggestions diverse and consider different career paths, not just variations of their role preference.");
-
-        // Prepare request body for OpenRouter Chat Completions (OpenAI-compatible format)
-        Map<String, String> message = new HashMap<>();
-        message.put("role", "user");
-        message.put("content", prompt.toString());
-        
-        List<Map<String, String>> messages = new ArrayList<>();
-        messages.add(message);
-        
-        Map<String, Object> body = new HashMap<>();
-        body.put("model", MODEL);
-        body.put("messages", messages);
-        body.put("max_tokens", 600);
-
-        String requestJson = mapper.writeValueAsString(body);
-        System.out.println("Making API request to: " + OPENROUTER_BASE_URL + "/chat/completions");
-        System.out.println("Using API key prefix: " + (apiKey.length() > 10 ? apiKey.substring(0, 10) + "..." : "***"));
-
-        HttpRequest httpRequest = HttpRequest.newBuilder()
-                .uri(URI.create(OPENROUTER_BASE_URL + "/chat/completions"))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + apiKey)
-                .header("HTTP-Referer", "http://localhost:5173")
-                .header("X-Title", "Job Suggestions App")
-                .POST(HttpRequest.BodyPublishers.ofString(requestJson, StandardCharsets.UTF_8))
-                .timeout(java.time.Duration.ofSeconds(30))
-                .build();
-        
-        HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            throw e;
+        }
+    }
 
-        System.out.println("API Response status: " + response.statusCode());
-        String responseBody = response.body();
-        System.out.println("API Response body (first 200 chars): " + (responseBody.length() > 200 ? responseBody.substring(0, 200) : responseBody));
+    // Cache-aware entry points: a fingerprint hit returns the stored text without calling OpenRouter,
+    // and concurrent misses for the same fingerprint share a single in-flight call. Cached text
+    // comes back without token usage: no tokens were spent on it. max_tokens is not part of the
+    // fingerprint, so a completion cut off at its cap is returned but never cached.
+    public CompletableFuture<LlmCompletion> generateSuggestionsAsync(java.util.Map<String, String> answers) {
+        String fingerprint = SuggestionCache.fingerprint(answers, llmClient.model(), promptTemplates.active().getId());
+        String cached = suggestionCache.get(fingerprint);
+        if (cached != null) {
+            log.debug("Suggestion cache hit");
+            return CompletableFuture.completedFuture(LlmCompletion.of(cached));
+        }
+        return inFlightGenerations.join(fingerprint, () -> {
+            MaxTokensPolicy.Decision decision = maxTokensPolicy.decide(answers);
+            return generateJobSuggestionsWithAIAsync(answers, decision)
+                    .thenApply(completion -> cacheIfComplete(fingerprint, decision, completion));
+        });
+    }
 
-        if (response.statusCode() != 200) {
-            // Try to parse error message
+    // On a cache hit the whole text is delivered as a single delta
+    public CompletableFuture<LlmCompletion> streamSuggestions(java.util.Map<String, String> answers, Consumer<String> onDelta) {
+        String fingerprint = SuggestionCache.fingerprint(answers, llmClient.model(), promptTemplates.active().getId());
+        String cached = suggestionCache.get(fingerprint);
+        if (cached != null) {
+            log.debug("Suggestion cache hit");
             try {
-                JsonNode errorNode = mapper.readTree(responseBody);
-                if (errorNode.has("error") && errorNode.get("error").has("message")) {
-                    String errorMsg = errorNode.get("error").get("message").asText();
-                    throw new Exception("API request failed: " + errorMsg);
-                }
-            } catch (Exception e) {
-                // If we can't parse, just use the status code
+                onDelta.accept(cached);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
             }
-            throw new Exception("API request failed with status: " + response.statusCode() + " - " + responseBody);
+            return CompletableFuture.completedFuture(LlmCompletion.of(cached));
         }
+        MaxTokensPolicy.Decision decision = maxTokensPolicy.decide(answers);
+        return streamJobSuggestionsWithAI(answers, decision, onDelta)
+                .thenApply(completion -> cacheIfComplete(fingerprint, decision, completion));
+    }
 
-        JsonNode jsonNode = mapper.readTree(responseBody);
-        
-        // Check for error in response
-        if (jsonNode.has("error")) {
-            JsonNode error = jsonNode.get("error");
-            String errorMsg = error.has("message") ? error.get("message").asText() : error.toString();
-            throw new Exception("API error: " + errorMsg);
+    private LlmCompletion cacheIfComplete(String fingerprint, MaxTokensPolicy.Decision decision, LlmCompletion completion) {
+        if (MaxTokensPolicy.truncated(decision, completion)) {
+            log.debug("Not caching a completion cut off at max_tokens={}", decision.maxTokens());
+        } else {
+            suggestionCache.put(fingerprint, completion.text());
         }
-        
-        if (jsonNode.has("choices") && jsonNode.get("choices").isArray() && jsonNode.get("choices").size() > 0) {
-            JsonNode firstChoice = jsonNode.get("choices").get(0);
-            if (firstChoice.has("message") && firstChoice.get("message").has("content")) {
-                String content = firstChoice.get("message").get("content").asText();
-                System.out.println("Successfully extracted AI response");
-                return content;
+        return completion;
+    }
+
+    // AI generation, answered by the local engine instead if the AI call fails. Prompts over the
+    // token budget are the caller's error and still fail. Fallback text is never cached, so the
+    // next request for the same answers tries the AI again.
+    public CompletableFuture<GeneratedSuggestions> generateWithFallbackAsync(java.util.Map<String, String> answers) {
+        return generateSuggestionsAsync(answers).handle(CorrelationId.wrapHandler((completion, error) -> {
+            if (error == null) {
+                return GeneratedSuggestions.ai(completion);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (!canFallBack(cause)) {
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(cause);
             }
+            log.warn("AI generation failed ({}), answering from the local engine", cause.getMessage());
+            return GeneratedSuggestions.local(localSuggestionEngine.suggest(answers));
+        }));
+    }
+
+    // Streaming counterpart: falls back only while nothing has been streamed yet, in which case
+    // the local text is delivered as a single delta. A failure mid-stream is passed on as is.
+    public CompletableFuture<GeneratedSuggestions> streamWithFallback(java.util.Map<String, String> answers, Consumer<String> onDelta) {
+        AtomicBoolean streamed = new AtomicBoolean();
+        Consumer<String> tracking = delta -> {
+            streamed.set(true);
+            onDelta.accept(delta);
+        };
+        return streamSuggestions(answers, tracking).handle(CorrelationId.wrapHandler((completion, error) -> {
+            if (error == null) {
+                return GeneratedSuggestions.ai(completion);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (streamed.get() || !canFallBack(cause)) {
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(cause);
+            }
+            log.warn("AI streaming failed ({}), answering from the local engine", cause.getMessage());
+            String text = localSuggestionEngine.suggest(answers);
+            onDelta.accept(text);
+            return GeneratedSuggestions.local(text);
+        }));
+    }
+
+    private boolean canFallBack(Throwable cause) {
+        return localFallbackEnabled && !(cause instanceof PromptBudgetExceededException);
+    }
+
+    private String promptVersion(GeneratedSuggestions suggestions) {
+        return suggestions.aiGenerated() ? promptTemplates.active().getId() : LocalSuggestionEngine.VERSION;
+    }
+
+    private static String localExternalApiData() {
+        return "{\"integration\": \"Local rule-based engine\", \"model\": \"" + LocalSuggestionEngine.MODEL + "\", \"status\": \"fallback\", \"aiGenerated\": false}";
+    }
+
+    // Renders the prompt for the answers with the active template and hands it to the LLM client,
+    // through the bulkhead and circuit breaker, with max_tokens as decided by the MaxTokensPolicy
+    private CompletableFuture<LlmCompletion> generateJobSuggestionsWithAIAsync(java.util.Map<String, String> answers,
+                                                                        MaxTokensPolicy.Decision decision) {
+        String prompt;
+        try {
+            prompt = promptTemplates.render(promptTemplates.active(), answers);
+        } catch (RuntimeException e) {
+            return timed(Timer.start(meterRegistry), decision, CompletableFuture.failedFuture(e));
         }
-        
-        throw new Exception("Unexpected API response format: " + responseBody);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return timed(sample, decision, aiCallGuard.call(() -> llmClient.complete(prompt, decision.maxTokens())));
+    }
+
+    private CompletableFuture<LlmCompletion> streamJobSuggestionsWithAI(java.util.Map<String, String> answers,
+                                                                MaxTokensPolicy.Decision decision, Consumer<String> onDelta) {
+        String prompt;
+        try {
+            prompt = promptTemplates.render(promptTemplates.active(), answers);
+        } catch (RuntimeException e) {
+            return timed(Timer.start(meterRegistry), decision, CompletableFuture.failedFuture(e));
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return timed(sample, decision, aiCallGuard.call(() -> llmClient.stream(prompt, decision.maxTokens(), onDelta)));
     }
 
+    // suggestions.ai.generation: every AI generation attempt, tagged with how it ended, so
+    // timeouts and errors can be counted (and alerted on) next to their latency. The richness
+    // tier tag shows what the smaller max_tokens of simple surveys buys; successful generations
+    // also feed their token usage back to the MaxTokensPolicy.
+    private CompletableFuture<LlmCompletion> timed(Timer.Sample sample, MaxTokensPolicy.Decision decision,
+                                                   CompletableFuture<LlmCompletion> generation) {
+        return generation.whenComplete((completion, error) -> {
+            long elapsedNanos = sample.stop(Timer.builder("suggestions.ai.generation")
+                    .description("AI suggestion generation, from prompt rendering to the provider's answer")
+                    .tag("outcome", outcome(error))
+                    .tag("model", String.valueOf(llmClient.model()))
+                    .tag("tier", decision.tierName())
+                    .register(meterRegistry));
+            if (error == null) {
+                maxTokensPolicy.observe(decision, completion, elapsedNanos);
+            }
+        });
+    }
+
+    static String outcome(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause == null) {
+            return "success";
+        }
+        if (cause instanceof HttpTimeoutException || cause instanceof AiCallTimeoutException) {
+            return "timeout";
+        }
+        if (cause instanceof AiUnavailableException) {
+            return "rejected";
+        }
+        if (cause instanceof PromptBudgetExceededException) {
+            return "prompt_too_long";
+        }
+        return "error";
+    }
 
     private String fetchExternalApiData(java.util.Map<String, String> answers) {
         // Store OpenAI API integration metadata
-        try {
-            String apiKey = getApiKey();
-            String keyPrefix = apiKey.length() > 10 ? apiKey.substring(0, 10) + "..." : "***";
-            return String.format("{\"integration\": \"OpenAI ChatGPT API\", \"model\": \"%s\", \"apiKey\": \"%s\", \"status\": \"integrated\"}", 
-                MODEL, keyPrefix);
-        } catch (Exception e) {
-            return "{\"integration\": \"OpenAI ChatGPT API\", \"status\": \"error\", \"message\": \"" + e.getMessage() + "\"}";
-        }
+        return "{\"integration\": \"OpenAI ChatGPT API\", \"model\": \"" + llmClient.model() + "\", \"status\": \"integrated\"}";
     }
 }
@@ -0,0 +1,26 @@
+package com.example.jobsuggestions.service;
+
+// Cheap upper-bound-ish token count for budget checks before a prompt is sent. OpenAI's
+// tokenizers average about 4 characters of English text per token; this avoids pulling a
+// real tokenizer into the request path. It is only used to keep prompts under a budget,
+// not for billing.
+final class TokenEstimator {
+
+    static final int CHARS_PER_TOKEN = 4;
+
+    private TokenEstimator() {
+    }
+
+    static int estimate(int charCount) {
+        return (charCount + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    static int estimate(CharSequence text) {
+        return estimate(text.length());
+    }
+
+    // Largest number of characters that stays within the given number of tokens
+    static int charBudget(int tokens) {
+        return tokens * CHARS_PER_TOKEN;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.jobsuggestions.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+// Small bounded cache: least-recently-used entries are dropped once the summed weight of the
+// values exceeds maxWeight, and entries older than the TTL are treated as absent.
+// All access goes through one lock, which is fine for the handful of operations per request
+// this is used for.
+public class WeightedLruCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;
+        final int weight;
+        final long expiresAtNanos;
+
+        Entry(V value, int weight, long expiresAtNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToIntFunction<V> weigher;
+    private final LongSupplier nanoClock;
+    private long totalWeight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public WeightedLruCache(long maxWeight, long ttlNanos, ToIntFunction<V> weigher) {
+        this(maxWeight, ttlNanos, weigher, System::nanoTime);
+    }
+
+    WeightedLruCache(long maxWeight, long ttlNanos, ToIntFunction<V> weigher, LongSupplier nanoClock) {
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttlNanos;
+        this.weigher = weigher;
+        this.nanoClock = nanoClock;
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (nanoClock.getAsLong() - entry.expiresAtNanos >= 0) {
+            entries.remove(key);
+            totalWeight -= entry.weight;
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        int weight = weigher.applyAsInt(value);
+        if (weight > maxWeight) {
+            // Would evict everything else and still not fit
+            remove(key);
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight, nanoClock.getAsLong() + ttlNanos));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            Map.Entry<K, Entry<V>> candidate = eldest.next();
+            eldest.remove();
+            totalWeight -= candidate.getValue().weight;
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    // Scans every entry under the lock; meant for rare invalidations, not the request path
+    public synchronized int removeIf(Predicate<K> keyFilter) {
+        int removed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> candidate = iterator.next();
+            if (keyFilter.test(candidate.getKey())) {
+                iterator.remove();
+                totalWeight -= candidate.getValue().weight;
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("size", size());
+        stats.put("weight", weight());
+        stats.put("maxWeight", maxWeight);
+        return stats;
+    }
+}
@@ -0,0 +1,45 @@
+-- Baseline: the tables the JPA entities map to, as of prompt/completion token tracking.
+-- Column types and the (entry_number, user_id) primary key order match what Hibernate
+-- generates, so ddl-auto=create-drop (default profile) and this schema (prod) behave the same.
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    -- Last entry number handed out to the user's suggestions (EntryNumberAllocator)
+    entry_sequence INTEGER NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    -- findByUsername / existsByUsername (login, registration)
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE suggestions (
+    user_id BIGINT NOT NULL,
+    entry_number INTEGER NOT NULL,
+    answers_json TEXT,
+    suggestions TEXT,
+    external_api_data TEXT,
+    created_at TIMESTAMP(6),
+    prompt_version VARCHAR(32),
+    prompt_tokens INTEGER,
+    completion_tokens INTEGER,
+    CONSTRAINT pk_suggestions PRIMARY KEY (entry_number, user_id),
+    CONSTRAINT fk_suggestions_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- The SuggestionRepository finders filter on user_id and order or seek by entry_number:
+-- findByUser[Id]OrderByEntryNumberAsc, findSummariesByUserId[After]. The primary key leads with
+-- entry_number, so it only serves exact findByUserIdAndEntryNumber lookups. Entry numbers grow
+-- with created_at, so this index also returns a user's history in creation order.
+CREATE INDEX idx_suggestions_user_entry ON suggestions (user_id, entry_number);
+
+-- Legacy one-row-per-answer storage (suggestions.answers.storage=table)
+CREATE TABLE suggestion_answers (
+    entry_number INTEGER NOT NULL,
+    user_id BIGINT NOT NULL,
+    answer_key VARCHAR(255) NOT NULL,
+    answer_value VARCHAR(255),
+    CONSTRAINT pk_suggestion_answers PRIMARY KEY (entry_number, user_id, answer_key),
+    CONSTRAINT fk_suggestion_answers_suggestion FOREIGN KEY (entry_number, user_id)
+        REFERENCES suggestions (entry_number, user_id)
+);
@@ -0,0 +1,8 @@
+-- Optimistic-locking version of each suggestion (Suggestion.version), also the basis of the
+-- ETags on GET /api/suggestions and /api/suggestions/{entryNumber}. Existing rows start at 0.
+ALTER TABLE suggestions ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+-- The conditional GETs read count / max(entry_number) / sum(version) per user, or one version.
+-- With version in the index they never touch the rows and their TEXT columns.
+DROP INDEX idx_suggestions_user_entry;
+CREATE INDEX idx_suggestions_user_entry ON suggestions (user_id, entry_number, version);
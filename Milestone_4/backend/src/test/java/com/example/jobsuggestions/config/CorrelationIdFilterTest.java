@@ -0,0 +1,86 @@
+package com.example.jobsuggestions.config;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorrelationIdFilterTest {
+
+    @Test
+    void testKeepsValidCallerIdAndClearsMdcAfterwards() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/suggestions");
+        request.addHeader(CorrelationId.HEADER, "abc-123");
+        request.getSession().setAttribute("userId", 7L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seenId = new AtomicReference<>();
+        AtomicReference<String> seenUser = new AtomicReference<>();
+
+        new CorrelationIdFilter(0.0).doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                seenId.set(CorrelationId.current());
+                seenUser.set(MDC.get(CorrelationId.USER_MDC_KEY));
+            }
+        });
+
+        assertEquals("abc-123", seenId.get());
+        assertEquals("7", seenUser.get());
+        assertEquals("abc-123", response.getHeader(CorrelationId.HEADER));
+        assertNull(CorrelationId.current());
+    }
+
+    @Test
+    void testReplacesMissingOrUnsafeIds() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/suggestions");
+        request.addHeader(CorrelationId.HEADER, "bad id\nwith newline");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new CorrelationIdFilter(0.0).doFilter(request, response, new MockFilterChain());
+
+        String id = response.getHeader(CorrelationId.HEADER);
+        assertNotNull(id);
+        assertTrue(id.matches("[0-9a-f]{16}"));
+    }
+
+    @Test
+    void testSamplingRateBounds() {
+        assertFalse(new CorrelationIdFilter(0.0).isSampled("abc-123"));
+        assertTrue(new CorrelationIdFilter(1.0).isSampled("abc-123"));
+
+        CorrelationIdFilter tenPercent = new CorrelationIdFilter(0.1);
+        int sampled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (tenPercent.isSampled(Integer.toHexString(i * 7919))) {
+                sampled++;
+            }
+        }
+        assertTrue(sampled > 700 && sampled < 1300, "sampled " + sampled);
+    }
+
+    @Test
+    void testWrappedCallbacksSeeTheRequestsMdcOnOtherThreads() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            MDC.put(CorrelationId.MDC_KEY, "req-1");
+            CompletableFuture<String> seen = CompletableFuture.supplyAsync(() -> "x", executor)
+                    .thenApplyAsync(CorrelationId.wrap(value -> CorrelationId.current()), executor);
+            MDC.remove(CorrelationId.MDC_KEY);
+
+            assertEquals("req-1", seen.join());
+            // The pool thread is left as it was found
+            assertNull(CompletableFuture.supplyAsync(CorrelationId::current, executor).join());
+        } finally {
+            MDC.clear();
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.jobsuggestions.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The prod profile builds the schema with Flyway and Hibernate validates the entities against
+// it (the context would not start otherwise). Runs against a throwaway in-memory database.
+@SpringBootTest(properties = {
+        "JOBS_DB_URL=jdbc:h2:mem:prodprofile;DB_CLOSE_DELAY=-1",
+        "llm.provider=stub",
+        "llm.stub.latency-ms=0"
+})
+@ActiveProfiles("prod")
+@AutoConfigureMockMvc
+class ProdProfileTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testMigrationsCreateSchemaAndIndexes() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"", String.class);
+        assertEquals(List.of("1", "2"), versions);
+
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_SCHEMA = 'PUBLIC'", String.class);
+        assertTrue(indexes.contains("idx_suggestions_user_entry"), indexes.toString());
+        assertTrue(indexes.stream().anyMatch(name -> name.startsWith("uk_users_username")), indexes.toString());
+
+        List<String> indexColumns = jdbcTemplate.queryForList(
+                "SELECT LOWER(COLUMN_NAME) FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+                "WHERE INDEX_NAME = 'IDX_SUGGESTIONS_USER_ENTRY' ORDER BY ORDINAL_POSITION", String.class);
+        assertEquals(List.of("user_id", "entry_number", "version"), indexColumns);
+    }
+
+    @Test
+    void testSuggestionsAreStoredWithAutocommitOff() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        mockMvc.perform(post("/api/auth/register").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"prod-user\", \"password\": \"secret\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/suggestions").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"answers\": {\"skills\": \"SQL\"}}"))
+                .andExpect(status().isCreated());
+
+        MvcResult list = mockMvc.perform(get("/api/suggestions").session(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(list))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT entry_sequence FROM users WHERE username = 'prod-user'", Integer.class));
+    }
+}
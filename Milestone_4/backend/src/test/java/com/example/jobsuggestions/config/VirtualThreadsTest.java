@@ -0,0 +1,40 @@
+package com.example.jobsuggestions.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsTest {
+
+    @Test
+    void testPlatformModeNeedsNothing() {
+        assertFalse(VirtualThreads.isVirtual("platform"));
+        assertFalse(VirtualThreads.isVirtual("PLATFORM"));
+        assertThrows(IllegalArgumentException.class, () -> VirtualThreads.isVirtual("green"));
+    }
+
+    @Test
+    void testVirtualModeRunsTasksOnVirtualThreadsOrFailsFast() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            // Java 17: asking for virtual mode must stop startup rather than silently use platform threads
+            assertThrows(IllegalStateException.class, () -> VirtualThreads.isVirtual("virtual"));
+            assertThrows(IllegalStateException.class, () -> VirtualThreads.newThreadPerTaskExecutor("test-"));
+            return;
+        }
+
+        assertTrue(VirtualThreads.isVirtual("virtual"));
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        try {
+            Future<Boolean> isVirtual = executor.submit(() ->
+                    (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+            Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+            assertTrue(isVirtual.get());
+            assertTrue(name.get().startsWith("test-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
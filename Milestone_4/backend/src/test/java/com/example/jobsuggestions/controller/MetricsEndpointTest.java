@@ -0,0 +1,101 @@
+package com.example.jobsuggestions.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The Prometheus scrape covers routes, AI generations and the database, using the in-process
+// stub LLM so no network is needed. Metrics and stats are only served to logged-in users.
+@SpringBootTest(properties = {"llm.provider=stub", "llm.stub.latency-ms=0"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testMetricsAndStatsNeedALogin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/stats/ai"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"scraper\", \"password\": \"secret\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "secret")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "wrong")))
+                .andExpect(status().isUnauthorized());
+
+        // Everywhere else a Basic header is ignored and the app's own session handling answers
+        mockMvc.perform(post("/api/auth/login").with(httpBasic("scraper", "wrong"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"scraper\", \"password\": \"secret\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("WWW-Authenticate"));
+    }
+
+    @Test
+    void testPrometheusScrapeHasRouteAiAndDatabaseMetrics() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        mockMvc.perform(post("/api/auth/register").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"metrics-user\", \"password\": \"secret\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/suggestions").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"answers\": {\"skills\": \"SQL\"}}"))
+                .andExpect(status().isCreated());
+        MvcResult list = mockMvc.perform(get("/api/suggestions").session(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(list))
+                .andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").session(session))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertLine(scrape, "http_server_requests_seconds{", "method=\"POST\"", "uri=\"/api/suggestions\"", "status=\"201\"", "quantile=\"0.99\"");
+        assertLine(scrape, "http_server_requests_seconds_bucket{", "uri=\"/api/suggestions\"");
+        assertLine(scrape, "http_server_requests_seconds{", "uri=\"/api/auth/register\"", "quantile=\"0.95\"");
+        assertLine(scrape, "suggestions_ai_generation_seconds_count{", "model=\"local/stub\"", "outcome=\"success\"");
+        assertLine(scrape, "suggestions_ai_tokens_count{", "type=\"completion\"", "tier=\"small\"");
+        assertLine(scrape, "suggestions_ai_latency_per_token_milliseconds{", "quantile=\"0.95\"");
+        assertLine(scrape, "spring_data_repository_invocations_seconds_count{", "repository=\"SuggestionRepository\"");
+        assertLine(scrape, "hikaricp_connections_acquire_seconds{", "quantile=\"0.99\"");
+    }
+
+    // Some sample line of the scrape has all the given parts (label order is not relied on)
+    private static void assertLine(String scrape, String... parts) {
+        boolean found = scrape.lines().anyMatch(line -> {
+            for (String part : parts) {
+                if (!line.contains(part)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        assertTrue(found, "no sample line with " + String.join(" ", parts));
+    }
+}
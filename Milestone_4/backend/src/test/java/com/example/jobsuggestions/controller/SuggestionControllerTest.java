@@ -1,10 +1,19 @@
 package com.example.jobsuggestions.controller;
 
 import com.example.jobsuggestions.model.Suggestion;
+import com.example.jobsuggestions.model.SuggestionJob;
+import com.example.jobsuggestions.model.SuggestionListVersion;
 import com.example.jobsuggestions.model.SuggestionRequest;
+import com.example.jobsuggestions.model.SuggestionSummary;
 import com.example.jobsuggestions.model.User;
-import com.example.jobsuggestions.repository.UserRepository;
+import com.example.jobsuggestions.service.AiUnavailableException;
+import com.example.jobsuggestions.service.GeneratedSuggestions;
+import com.example.jobsuggestions.service.LocalSuggestionEngine;
+import com.example.jobsuggestions.service.SuggestionBatchService;
+import com.example.jobsuggestions.service.SuggestionJobService;
+import com.example.jobsuggestions.service.SuggestionPayloadCache;
 import com.example.jobsuggestions.service.SuggestionService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpSession;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,16 +23,26 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -43,6 +62,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         })
     }
 )
+@Import(SuggestionPayloadCache.class)
 class SuggestionControllerTest {
 
     @Autowired
@@ -52,7 +72,13 @@ class SuggestionControllerTest {
     private SuggestionService suggestionService;
 
     @MockBean
-    private UserRepository userRepository;
+    private SuggestionJobService suggestionJobService;
+
+    @MockBean
+    private SuggestionBatchService suggestionBatchService;
+
+    @MockBean
+    private LocalSuggestionEngine localSuggestionEngine;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -75,31 +101,220 @@ class SuggestionControllerTest {
         testSuggestion.setAnswers(answers);
         testSuggestion.setSuggestions("Test suggestions");
         testSuggestion.setUser(testUser);
+
+        when(suggestionService.getListVersion(1L)).thenReturn(new SuggestionListVersion(1, 1, 0L));
     }
 
     @Test
     void testGetAllSuggestions() throws Exception {
-        List<Suggestion> suggestions = new ArrayList<>();
-        suggestions.add(testSuggestion);
+        List<SuggestionSummary> summaries = new ArrayList<>();
+        summaries.add(new SuggestionSummary(1L, 1, null, "1. Job Title:\n   Web Developer"));
         
         // Mock session with user
         HttpSession mockSession = mock(HttpSession.class);
         when(mockSession.getAttribute("userId")).thenReturn(1L);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(suggestionService.getAllSuggestionsByUser(testUser)).thenReturn(suggestions);
+        stubSummaries(summaries);
 
-        mockMvc.perform(get("/api/suggestions")
+        MvcResult result = mockMvc.perform(get("/api/suggestions")
                         .sessionAttr("userId", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].entryNumber").value(1))
-                .andExpect(jsonPath("$[0].id").value(1));
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].headline").value("1. Job Title: Web Developer"))
+                .andExpect(jsonPath("$[0].suggestions").doesNotExist())
+                .andExpect(jsonPath("$[0].answers").doesNotExist());
+    }
+
+    @Test
+    void testGetAllSuggestions_Gzip() throws Exception {
+        stubSummaries(List.of(new SuggestionSummary(1L, 1, null, "Web Developer")));
+
+        MvcResult result = mockMvc.perform(get("/api/suggestions")
+                        .header("Accept-Encoding", "gzip, deflate")
+                        .sessionAttr("userId", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult gzipped = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn();
+        String etag = gzipped.getResponse().getHeader("ETag");
+        assertTrue(etag.endsWith("-gzip\""), etag);
+
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            JsonNode list = objectMapper.readTree(body);
+            assertEquals(1, list.size());
+            assertEquals("Web Developer", list.get(0).get("headline").asText());
+        }
+
+        // q=0 turns gzip off, and the plain representation has its own tag
+        result = mockMvc.perform(get("/api/suggestions")
+                        .header("Accept-Encoding", "gzip;q=0")
+                        .sessionAttr("userId", 1L))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("ETag", etag.replace("-gzip", "")));
+    }
+
+    @Test
+    void testGetAllSuggestions_NotModified() throws Exception {
+        stubSummaries(List.of());
+        MvcResult result = mockMvc.perform(get("/api/suggestions")
+                        .sessionAttr("userId", 1L))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+        assertTrue(etag.startsWith("\"") && !etag.startsWith("W/"), etag);
+
+        mockMvc.perform(get("/api/suggestions")
+                        .header("If-None-Match", etag)
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        mockMvc.perform(asyncDispatch(result));
+        verify(suggestionService, times(1)).forEachSummary(eq(1L), any());
+
+        // Any change to the history (here: one more entry) changes the tag
+        when(suggestionService.getListVersion(1L)).thenReturn(new SuggestionListVersion(2, 2, 0L));
+        result = mockMvc.perform(get("/api/suggestions")
+                        .header("If-None-Match", etag)
+                        .sessionAttr("userId", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        verify(suggestionService, times(2)).forEachSummary(eq(1L), any());
+    }
+
+    @Test
+    void testGetAllSuggestions_Paged() throws Exception {
+        SuggestionSummary first = new SuggestionSummary(1L, 1, null, "First");
+        SuggestionSummary second = new SuggestionSummary(1L, 2, null, "Second");
+
+        // limit + 1 rows are requested to detect a further page
+        when(suggestionService.getSuggestionSummariesAfter(1L, 0, 2)).thenReturn(List.of(first, second));
+
+        MvcResult result = mockMvc.perform(get("/api/suggestions")
+                        .param("limit", "1")
+                        .sessionAttr("userId", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].entryNumber").value(1))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+
+        String cursor = objectMapper.readTree(result.getResponse().getContentAsString()).get("nextCursor").asText();
+        when(suggestionService.getSuggestionSummariesAfter(1L, 1, 2)).thenReturn(List.of(second));
+
+        result = mockMvc.perform(get("/api/suggestions")
+                        .param("after", cursor)
+                        .param("limit", "1")
+                        .sessionAttr("userId", 1L))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].entryNumber").value(2))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testGetAllSuggestions_InvalidCursor() throws Exception {
+
+        MvcResult result = mockMvc.perform(get("/api/suggestions")
+                        .param("after", "not-a-cursor")
+                        .sessionAttr("userId", 1L))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid cursor"));
+        verify(suggestionService, never()).getSuggestionSummariesAfter(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetSuggestionByEntryNumber_NotModifiedFromVersionOnly() throws Exception {
+        ReflectionTestUtils.setField(testSuggestion, "version", 3L);
+        when(suggestionService.getSuggestionVersion(1L, 1)).thenReturn(3L);
+        when(suggestionService.getSuggestionById(1L, 1)).thenReturn(testSuggestion);
+
+        String etag = mockMvc.perform(get("/api/suggestions/1")
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/suggestions/1")
+                        .header("If-None-Match", etag)
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isNotModified());
+        // The revalidation read the version only
+        verify(suggestionService, times(1)).getSuggestionById(1L, 1);
+
+        ReflectionTestUtils.setField(testSuggestion, "version", 7L);
+        when(suggestionService.getSuggestionVersion(1L, 1)).thenReturn(7L);
+        mockMvc.perform(get("/api/suggestions/1")
+                        .header("If-None-Match", etag)
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entryNumber").value(1));
+    }
+
+    @Test
+    void testGetSuggestionByEntryNumber_ServedFromPayloadCache() throws Exception {
+        ReflectionTestUtils.setField(testSuggestion, "version", 4L);
+        when(suggestionService.getSuggestionVersion(1L, 1)).thenReturn(4L);
+        when(suggestionService.getSuggestionById(1L, 1)).thenReturn(testSuggestion);
+
+        String first = mockMvc.perform(get("/api/suggestions/1")
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        MvcResult gzipped = mockMvc.perform(get("/api/suggestions/1")
+                        .header("Accept-Encoding", "gzip")
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        // Both reads after the first come from the cached bytes, with the same JSON
+        verify(suggestionService, times(1)).getSuggestionById(1L, 1);
+        assertEquals("Test suggestions", objectMapper.readTree(first).get("suggestions").asText());
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            assertEquals(objectMapper.readTree(first), objectMapper.readTree(body));
+        }
+
+        // Once the version moves on, the row is read again
+        when(suggestionService.getSuggestionVersion(1L, 1)).thenReturn(5L);
+        mockMvc.perform(get("/api/suggestions/1")
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isOk());
+        verify(suggestionService, times(2)).getSuggestionById(1L, 1);
+    }
+
+    @Test
+    void testGetSuggestionByEntryNumber_NotFound() throws Exception {
+        when(suggestionService.getSuggestionVersion(1L, 9)).thenReturn(null);
+
+        mockMvc.perform(get("/api/suggestions/9")
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isNotFound());
+        verify(suggestionService, never()).getSuggestionById(1L, 9);
     }
 
     @Test
     void testCreateSuggestion() throws Exception {
         // Mock session with user
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(suggestionService.createSuggestion(any(User.class), any(Map.class))).thenReturn(testSuggestion);
+        when(suggestionService.createSuggestion(eq(1L), any(Map.class))).thenReturn(testSuggestion);
 
         Map<String, Object> requestBody = new HashMap<>();
         Map<String, String> answers = new HashMap<>();
@@ -115,6 +330,161 @@ class SuggestionControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    void testCreateSuggestion_AiUnavailable() throws Exception {
+        SuggestionRequest request = new SuggestionRequest();
+        request.setAnswers(Map.of("skills", "Java"));
+
+        when(suggestionService.createSuggestion(eq(1L), any(Map.class)))
+                .thenThrow(new AiUnavailableException("AI service is temporarily unavailable", 12));
+
+        mockMvc.perform(post("/api/suggestions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "12"))
+                .andExpect(jsonPath("$.error").value("AI service is temporarily unavailable"));
+    }
+
+    @Test
+    void testCreateSuggestion_Async() throws Exception {
+        SuggestionJob job = new SuggestionJob(1L);
+        when(suggestionJobService.submit(eq(1L), any(Map.class))).thenReturn(job);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        Map<String, String> answers = new HashMap<>();
+        answers.put("skills", "Java");
+        requestBody.put("answers", answers);
+
+        mockMvc.perform(post("/api/suggestions")
+                        .param("async", "true")
+                        .sessionAttr("userId", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/suggestions/jobs/" + job.getId()))
+                .andExpect(jsonPath("$.jobId").value(job.getId()))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(suggestionService, never()).createSuggestion(eq(1L), any(Map.class));
+    }
+
+    @Test
+    void testGetSuggestionJob_Completed() throws Exception {
+        SuggestionJob job = new SuggestionJob(1L);
+        job.complete(testSuggestion);
+        when(suggestionJobService.getJob(job.getId(), 1L)).thenReturn(job);
+
+        mockMvc.perform(get("/api/suggestions/jobs/" + job.getId())
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.result.entryNumber").value(1));
+    }
+
+    @Test
+    void testStreamSuggestion() throws Exception {
+        GeneratedSuggestions generated = GeneratedSuggestions.ai("1. Software Engineer");
+        when(suggestionService.streamWithFallback(any(Map.class), any(Consumer.class))).thenAnswer(invocation -> {
+            Consumer<String> onDelta = invocation.getArgument(1);
+            onDelta.accept("1. Software ");
+            onDelta.accept("Engineer");
+            return CompletableFuture.completedFuture(generated);
+        });
+        when(suggestionService.saveSuggestion(eq(1L), any(Map.class), eq(generated))).thenReturn(testSuggestion);
+
+        MvcResult result = mockMvc.perform(get("/api/suggestions/stream")
+                        .param("skills", "Java")
+                        .sessionAttr("userId", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:delta"));
+        assertTrue(body.contains("\"content\":\"1. Software \""));
+        assertTrue(body.contains("event:done"));
+        verify(suggestionService).saveSuggestion(eq(1L), eq(Map.of("skills", "Java")), eq(generated));
+    }
+
+    @Test
+    void testCreateSuggestionBatch_StreamsNdjson() throws Exception {
+        when(suggestionBatchService.submit(eq(1L), any(List.class), any(Consumer.class))).thenAnswer(invocation -> {
+            Consumer<SuggestionBatchService.Outcome> onOutcome = invocation.getArgument(2);
+            onOutcome.accept(new SuggestionBatchService.Outcome(1, 2, null, "AI generation failed: too long"));
+            onOutcome.accept(new SuggestionBatchService.Outcome(0, 1, testSuggestion, null));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("items", List.of(Map.of("skills", "Java"), Map.of("skills", "Go")));
+
+        MvcResult result = mockMvc.perform(post("/api/suggestions/batch")
+                        .sessionAttr("userId", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertTrue(result.getResponse().getContentType().startsWith(MediaType.APPLICATION_NDJSON_VALUE));
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        Map<?, ?> failed = objectMapper.readValue(lines[0], Map.class);
+        assertEquals("failed", failed.get("status"));
+        assertEquals(1, failed.get("index"));
+        Map<?, ?> created = objectMapper.readValue(lines[1], Map.class);
+        assertEquals("created", created.get("status"));
+        assertEquals(1, ((Map<?, ?>) created.get("suggestion")).get("entryNumber"));
+        Map<?, ?> summary = objectMapper.readValue(lines[2], Map.class);
+        assertEquals(Map.of("status", "done", "created", 1, "failed", 1), summary);
+    }
+
+    @Test
+    void testCreateSuggestionBatch_RejectsEmptyAndOversizedBatches() throws Exception {
+        mockMvc.perform(post("/api/suggestions/batch")
+                        .sessionAttr("userId", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        List<Map<String, String>> items = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            items.add(Map.of("skills", "Java"));
+        }
+        mockMvc.perform(post("/api/suggestions/batch")
+                        .sessionAttr("userId", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("items", items))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(suggestionBatchService);
+    }
+
+    @Test
+    void testPreviewSuggestion() throws Exception {
+        List<LocalSuggestionEngine.Match> matches = List.of(new LocalSuggestionEngine.Match(
+                "Backend Developer", 11, List.of(), List.of("java"), List.of(), true, List.of("Build an API")));
+        when(localSuggestionEngine.rank(any(Map.class), eq(5))).thenReturn(matches);
+        when(localSuggestionEngine.render(matches, "Remote")).thenReturn("1. Job Title: Backend Developer");
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("answers", Map.of("skills", "Java", "location", "Remote"));
+
+        mockMvc.perform(post("/api/suggestions/preview")
+                        .sessionAttr("userId", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions").value("1. Job Title: Backend Developer"))
+                .andExpect(jsonPath("$.matches[0].title").value("Backend Developer"))
+                .andExpect(jsonPath("$.matches[0].score").value(11))
+                .andExpect(jsonPath("$.engine").value(LocalSuggestionEngine.VERSION));
+
+        // A preview never generates or saves a suggestion
+        verifyNoInteractions(suggestionService);
+    }
+
     @Test
     void testUpdateSuggestion() throws Exception {
         Map<String, String> updatedAnswers = new HashMap<>();
@@ -128,11 +498,10 @@ class SuggestionControllerTest {
         updatedSuggestion.setUser(testUser);
 
         // Mock session with user
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         // Mock existing suggestion
-        when(suggestionService.getSuggestionById(1L, 1)).thenReturn(testSuggestion);
+        when(suggestionService.getSuggestionVersion(1L, 1)).thenReturn(0L);
         // Mock update
-        when(suggestionService.updateSuggestion(eq(1L), eq(1), any(Map.class))).thenReturn(updatedSuggestion);
+        when(suggestionService.updateSuggestion(eq(1L), eq(1), eq(0L), any(Map.class))).thenReturn(updatedSuggestion);
 
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("answers", updatedAnswers);
@@ -149,7 +518,6 @@ class SuggestionControllerTest {
 
     @Test
     void testDeleteSuggestion() throws Exception {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(suggestionService.deleteSuggestion(1L, 1)).thenReturn(true);
 
         mockMvc.perform(delete("/api/suggestions/1")
@@ -157,5 +525,57 @@ class SuggestionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("Suggestion deleted successfully"));
     }
-}
 
+    @Test
+    void testDeleteSuggestions_ByEntryNumbers() throws Exception {
+        when(suggestionService.deleteSuggestions(eq(1L), any())).thenReturn(2);
+
+        mockMvc.perform(delete("/api/suggestions")
+                        .param("entryNumbers", "1,3,3")
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        verify(suggestionService).deleteSuggestions(eq(1L), eq(new LinkedHashSet<>(List.of(1, 3))));
+        verify(suggestionService, never()).deleteAllSuggestions(any());
+    }
+
+    @Test
+    void testDeleteSuggestions_All() throws Exception {
+        when(suggestionService.deleteAllSuggestions(1L)).thenReturn(7);
+
+        mockMvc.perform(delete("/api/suggestions")
+                        .param("all", "true")
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(7));
+    }
+
+    @Test
+    void testDeleteSuggestions_RejectsMissingOrAmbiguousTarget() throws Exception {
+        mockMvc.perform(delete("/api/suggestions")
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(delete("/api/suggestions")
+                        .param("entryNumbers", "1")
+                        .param("all", "true")
+                        .sessionAttr("userId", 1L))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(delete("/api/suggestions")
+                        .param("all", "true"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(suggestionService);
+    }
+
+    // forEachSummary hands the rows to the controller's consumer one by one
+    private void stubSummaries(List<SuggestionSummary> summaries) {
+        doAnswer(invocation -> {
+            Consumer<SuggestionSummary> action = invocation.getArgument(1);
+            summaries.forEach(action);
+            return null;
+        }).when(suggestionService).forEachSummary(eq(1L), any());
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.jobsuggestions.controller;
+
+import com.example.jobsuggestions.service.LlmClient;
+import com.example.jobsuggestions.service.LlmCompletion;
+import com.example.jobsuggestions.service.StubLlmClient;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Open-in-view is off and the update reads only the version before its AI call, so no pooled
+// connection is held while a (stubbed, slow) completion is awaited.
+@SpringBootTest(properties = "llm.provider=stub")
+@AutoConfigureMockMvc
+class SuggestionUpdateConnectionTest {
+
+    // Active connections seen when each completion starts and when it finishes
+    private static final List<Integer> activeDuringAiCalls = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class SlowAiConfig {
+
+        @Bean
+        @Primary
+        LlmClient connectionCheckingLlmClient(DataSource dataSource) throws Exception {
+            HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            LlmClient stub = new StubLlmClient(300, 0, 20);
+            return new LlmClient() {
+                @Override
+                public String model() {
+                    return stub.model();
+                }
+
+                @Override
+                public CompletableFuture<LlmCompletion> complete(String prompt, int maxTokens) {
+                    activeDuringAiCalls.add(pool.getActiveConnections());
+                    return stub.complete(prompt, maxTokens).thenApply(completion -> {
+                        activeDuringAiCalls.add(pool.getActiveConnections());
+                        return completion;
+                    });
+                }
+
+                @Override
+                public CompletableFuture<LlmCompletion> stream(String prompt, int maxTokens, Consumer<String> onDelta) {
+                    return stub.stream(prompt, maxTokens, onDelta);
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testNoConnectionIsHeldDuringTheAiCallOfAnUpdate() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        mockMvc.perform(post("/api/auth/register").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"update-connections\", \"password\": \"secret\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/suggestions").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"answers\": {\"skills\": \"SQL\"}}"))
+                .andExpect(status().isCreated());
+
+        activeDuringAiCalls.clear();
+        mockMvc.perform(put("/api/suggestions/1").session(session)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"answers\": {\"skills\": \"Kotlin\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.answers.skills").value("Kotlin"));
+
+        assertEquals(List.of(0, 0), activeDuringAiCalls);
+
+        mockMvc.perform(get("/api/suggestions/1").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.answers.skills").value("Kotlin"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.jobsuggestions.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiCallGuardTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private AiCallGuard guard(int maxConcurrent) {
+        return guard(maxConcurrent, 60_000);
+    }
+
+    private AiCallGuard guard(int maxConcurrent, long callTimeoutMs) {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 50, TimeUnit.SECONDS.toNanos(30), 2, clock::get);
+        return new AiCallGuard(maxConcurrent, breaker, TimeUnit.SECONDS.toNanos(20), callTimeoutMs, clock::get);
+    }
+
+    private static CompletableFuture<String> failing() {
+        return CompletableFuture.failedFuture(new RuntimeException("502 from provider"));
+    }
+
+    private static Throwable causeOf(CompletableFuture<String> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        return e.getCause();
+    }
+
+    @Test
+    void testOpensAfterFailureRateAndFailsFast() {
+        AiCallGuard guard = guard(10);
+        guard.call(() -> CompletableFuture.completedFuture("ok"));
+        guard.call(() -> CompletableFuture.completedFuture("ok"));
+        guard.call(AiCallGuardTest::failing);
+        guard.call(AiCallGuardTest::failing);
+
+        AtomicInteger providerCalls = new AtomicInteger();
+        Throwable rejected = causeOf(guard.call(() -> {
+            providerCalls.incrementAndGet();
+            return CompletableFuture.completedFuture("ok");
+        }));
+
+        assertInstanceOf(AiUnavailableException.class, rejected);
+        assertEquals(30, ((AiUnavailableException) rejected).getRetryAfterSeconds());
+        assertEquals(0, providerCalls.get());
+        assertEquals(1L, guard.stats().get("rejectedCircuitOpen"));
+    }
+
+    @Test
+    void testHalfOpenProbesCloseOrReopen() throws Exception {
+        AiCallGuard guard = guard(10);
+        for (int i = 0; i < 4; i++) {
+            guard.call(AiCallGuardTest::failing);
+        }
+
+        // A failed probe re-opens for another full period
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        guard.call(AiCallGuardTest::failing);
+        assertInstanceOf(AiUnavailableException.class, causeOf(guard.call(() -> CompletableFuture.completedFuture("ok"))));
+
+        // Two successful probes close it; a third concurrent probe is not let through meanwhile
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        CompletableFuture<String> firstProbe = new CompletableFuture<>();
+        CompletableFuture<String> first = guard.call(() -> firstProbe);
+        assertEquals("ok", guard.call(() -> CompletableFuture.completedFuture("ok")).get());
+        assertInstanceOf(AiUnavailableException.class, causeOf(guard.call(() -> CompletableFuture.completedFuture("ok"))));
+        firstProbe.complete("ok");
+        assertEquals("ok", first.get());
+
+        assertEquals(CircuitBreaker.State.CLOSED, ((java.util.Map<?, ?>) guard.stats().get("breaker")).get("state"));
+    }
+
+    @Test
+    void testBulkheadRejectsWhenFullAndReleasesOnCompletion() throws Exception {
+        AiCallGuard guard = guard(1);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> running = guard.call(() -> pending);
+
+        assertInstanceOf(AiUnavailableException.class, causeOf(guard.call(() -> CompletableFuture.completedFuture("ok"))));
+        assertEquals(1L, guard.stats().get("rejectedBulkheadFull"));
+
+        pending.complete("done");
+        assertEquals("done", running.get());
+        assertEquals("ok", guard.call(() -> CompletableFuture.completedFuture("ok")).get());
+    }
+
+    @Test
+    void testStalledCallTimesOutAndReleasesItsPermit() throws Exception {
+        AiCallGuard guard = guard(1, 200);
+        CompletableFuture<String> neverAnswers = new CompletableFuture<>();
+
+        Throwable timedOut = causeOf(guard.call(() -> neverAnswers));
+
+        assertInstanceOf(AiCallTimeoutException.class, timedOut);
+        assertFalse(neverAnswers.isDone());
+        assertEquals("ok", guard.call(() -> CompletableFuture.completedFuture("ok")).get());
+        assertEquals(1L, guard.stats().get("timedOut"));
+        assertEquals(0L, guard.stats().get("failed"));
+    }
+
+    @Test
+    void testSlowSuccessCountsAgainstBreaker() {
+        AiCallGuard guard = guard(10);
+        for (int i = 0; i < 4; i++) {
+            CompletableFuture<String> response = new CompletableFuture<>();
+            guard.call(() -> response);
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(25));
+            response.complete("late");
+        }
+
+        assertEquals(4L, guard.stats().get("slow"));
+        assertInstanceOf(AiUnavailableException.class, causeOf(guard.call(() -> CompletableFuture.completedFuture("ok"))));
+    }
+}
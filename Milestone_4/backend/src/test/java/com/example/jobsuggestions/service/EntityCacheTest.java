@@ -0,0 +1,140 @@
+package com.example.jobsuggestions.service;
+
+import com.example.jobsuggestions.model.Suggestion;
+import com.example.jobsuggestions.model.User;
+import com.example.jobsuggestions.repository.SuggestionRepository;
+import com.example.jobsuggestions.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Second-level and query cache: repeated reads run no statements, and every way a row can
+// change (update, single and bulk delete, entry number allocation) is seen by the next read.
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class EntityCacheTest {
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private SuggestionRepository suggestionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntryNumberAllocator entryNumberAllocator;
+
+    @Autowired
+    private EntityCacheStats entityCacheStats;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Other test contexts share the in-memory database and recreate its schema on startup,
+        // reusing ids this context may still have cached
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+    }
+
+    @Test
+    void testDetailReadsComeFromCacheAndSeeUpdates() {
+        User user = createUserWithHistory("cache-detail", 2);
+        suggestionService.getSuggestionById(user.getId(), 1);
+
+        statistics.clear();
+        Suggestion cached = suggestionService.getSuggestionById(user.getId(), 1);
+        assertEquals("AI text 0", cached.getSuggestions());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+
+        cached.setSuggestions("Edited text");
+        suggestionRepository.save(cached);
+        Suggestion updated = suggestionService.getSuggestionById(user.getId(), 1);
+        assertEquals("Edited text", updated.getSuggestions());
+        assertEquals(1L, updated.getVersion());
+    }
+
+    @Test
+    void testDeletesEvictCachedSuggestions() {
+        User user = createUserWithHistory("cache-delete", 3);
+        for (int entryNumber = 1; entryNumber <= 3; entryNumber++) {
+            assertNotNull(suggestionService.getSuggestionById(user.getId(), entryNumber));
+        }
+
+        suggestionService.deleteSuggestion(user.getId(), 1);
+        assertNull(suggestionService.getSuggestionById(user.getId(), 1));
+        assertNotNull(suggestionService.getSuggestionById(user.getId(), 2));
+
+        suggestionService.deleteAllSuggestions(user.getId());
+        assertNull(suggestionService.getSuggestionById(user.getId(), 2));
+        assertNull(suggestionService.getSuggestionById(user.getId(), 3));
+    }
+
+    @Test
+    void testVersionQueriesAreCachedUntilTheTableChanges() {
+        User user = createUserWithHistory("cache-versions", 2);
+        suggestionService.getSuggestionVersion(user.getId(), 2);
+        suggestionService.getListVersion(user.getId());
+
+        statistics.clear();
+        assertEquals(0L, suggestionService.getSuggestionVersion(user.getId(), 2));
+        assertEquals(2, suggestionService.getListVersion(user.getId()).count());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getQueryCacheHitCount());
+
+        suggestionService.saveSuggestion(user.getId(), Map.of("skills", "SQL"), "AI text 2");
+        assertEquals(3, suggestionService.getListVersion(user.getId()).count());
+    }
+
+    @Test
+    void testUserLookupsSurviveEntryNumberAllocation() {
+        User user = userRepository.save(new User("cache-user", "not-a-real-hash"));
+        userRepository.findByUsername("cache-user");
+
+        assertEquals(1, entryNumberAllocator.allocate(user.getId(), 1));
+        assertEquals(2, entryNumberAllocator.allocate(user.getId(), 3));
+
+        statistics.clear();
+        assertEquals(user.getId(), userRepository.findByUsername("cache-user").orElseThrow().getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(5, entryNumberAllocator.allocate(user.getId(), 1));
+    }
+
+    @Test
+    void testStatsReportRegionHitRatios() {
+        User user = createUserWithHistory("cache-stats", 1);
+        suggestionService.getSuggestionById(user.getId(), 1);
+        suggestionService.getSuggestionById(user.getId(), 1);
+
+        Map<String, Object> stats = entityCacheStats.stats();
+        assertEquals(true, stats.get("enabled"));
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> regions = (Map<String, Map<String, Object>>) stats.get("regions");
+        assertTrue(regions.keySet().containsAll(List.of("suggestions", "suggestion-answers", "users")), regions.keySet().toString());
+        assertTrue((long) regions.get("suggestions").get("hits") > 0);
+        assertTrue((double) regions.get("suggestions").get("hitRatio") > 0);
+    }
+
+    private User createUserWithHistory(String username, int size) {
+        User user = userRepository.save(new User(username, "not-a-real-hash"));
+        for (int i = 0; i < size; i++) {
+            suggestionService.saveSuggestion(user.getId(), Map.of("skills", "Java " + i), "AI text " + i);
+        }
+        return user;
+    }
+}
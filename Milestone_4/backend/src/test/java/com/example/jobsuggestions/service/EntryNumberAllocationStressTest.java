@@ -0,0 +1,70 @@
+package com.example.jobsuggestions.service;
+
+import com.example.jobsuggestions.model.Suggestion;
+import com.example.jobsuggestions.model.User;
+import com.example.jobsuggestions.repository.SuggestionRepository;
+import com.example.jobsuggestions.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class EntryNumberAllocationStressTest {
+
+    private static final int CREATES = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SuggestionRepository suggestionRepository;
+
+    @Test
+    void testParallelCreatesForOneUserGetDistinctEntryNumbers() throws Exception {
+        User user = userRepository.save(new User("stress-user", "not-a-real-hash"));
+        Map<String, String> answers = Map.of("skills", "Java");
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Callable<Integer>> creates = new ArrayList<>();
+        for (int i = 0; i < CREATES; i++) {
+            creates.add(() -> suggestionService.saveSuggestion(user.getId(), answers, "AI text").getEntryNumber());
+        }
+        List<Future<Integer>> results;
+        try {
+            results = pool.invokeAll(creates);
+        } finally {
+            pool.shutdown();
+        }
+
+        Set<Integer> entryNumbers = new TreeSet<>();
+        for (Future<Integer> result : results) {
+            entryNumbers.add(result.get());
+        }
+
+        assertEquals(CREATES, entryNumbers.size());
+        assertEquals(1, ((TreeSet<Integer>) entryNumbers).first());
+        assertEquals(CREATES, ((TreeSet<Integer>) entryNumbers).last());
+        assertEquals(CREATES, suggestionRepository.findByUserIdOrderByEntryNumberAsc(user.getId()).size());
+
+        // Deleting the newest entry must not let its number be handed out again
+        suggestionService.deleteSuggestion(user.getId(), CREATES);
+        Suggestion next = suggestionService.saveSuggestion(user.getId(), answers, "AI text");
+        assertEquals(CREATES + 1, next.getEntryNumber());
+    }
+}
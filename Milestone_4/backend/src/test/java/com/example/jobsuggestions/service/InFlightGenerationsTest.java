@@ -0,0 +1,84 @@
+package com.example.jobsuggestions.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightGenerationsTest {
+
+    @Test
+    void testConcurrentIdenticalRequestsShareOneCall() throws Exception {
+        InFlightGenerations registry = new InFlightGenerations(Long.MAX_VALUE, System::nanoTime);
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = registry.join("key", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = registry.join("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        assertEquals(1, calls.get());
+        assertEquals(1, registry.size());
+
+        upstream.complete("suggestions");
+        assertEquals("suggestions", first.get());
+        assertEquals("suggestions", second.get());
+        assertEquals(0, registry.size());
+        assertEquals(1L, registry.stats().get("coalesced"));
+    }
+
+    @Test
+    void testFailedCallIsNotReused() {
+        InFlightGenerations registry = new InFlightGenerations(Long.MAX_VALUE, System::nanoTime);
+
+        CompletableFuture<String> failed = registry.join("key",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+        assertThrows(ExecutionException.class, failed::get);
+
+        CompletableFuture<String> retried = registry.join("key", () -> CompletableFuture.completedFuture("ok"));
+        assertEquals("ok", retried.join());
+        assertEquals(0L, registry.stats().get("coalesced"));
+    }
+
+    @Test
+    void testExpiredCallIsReplaced() {
+        AtomicLong now = new AtomicLong();
+        InFlightGenerations registry = new InFlightGenerations(1_000, now::get);
+        AtomicInteger calls = new AtomicInteger();
+
+        registry.join("key", () -> {
+            calls.incrementAndGet();
+            return new CompletableFuture<>(); // never completes
+        });
+        now.set(1_000);
+        CompletableFuture<String> fresh = registry.join("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("fresh");
+        });
+
+        assertEquals(2, calls.get());
+        assertEquals("fresh", fresh.join());
+    }
+
+    @Test
+    void testCancellingOneWaiterDoesNotAffectOthers() {
+        InFlightGenerations registry = new InFlightGenerations(Long.MAX_VALUE, System::nanoTime);
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = registry.join("key", () -> upstream);
+        CompletableFuture<String> second = registry.join("key", () -> upstream);
+        first.cancel(true);
+
+        upstream.complete("suggestions");
+        assertEquals("suggestions", second.join());
+    }
+}
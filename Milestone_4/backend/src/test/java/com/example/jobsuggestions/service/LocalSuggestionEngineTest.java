@@ -0,0 +1,90 @@
+package com.example.jobsuggestions.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalSuggestionEngineTest {
+
+    private static LocalSuggestionEngine engine;
+
+    @BeforeAll
+    static void loadIndex() throws Exception {
+        engine = new LocalSuggestionEngine(new ClassPathResource("job-index.json"));
+    }
+
+    @Test
+    void testRanksBySkillsAndRolePreference() {
+        List<LocalSuggestionEngine.Match> matches = engine.rank(Map.of(
+                "skills", "SQL, Excel, Tableau",
+                "rolePreference", "Data analyst",
+                "personality", "Analytical and detail-oriented"), 5);
+
+        assertEquals(5, matches.size());
+        assertEquals("Data Analyst", matches.get(0).title());
+        assertTrue(matches.get(0).matchedSkills().containsAll(List.of("sql", "excel", "tableau")));
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).score() >= matches.get(i).score());
+        }
+    }
+
+    @Test
+    void testMultiWordAndPunctuatedKeywords() {
+        assertEquals("front end developer", LocalSuggestionEngine.normalize("Front-End  Developer!"));
+        assertEquals("node.js c++ c# ci/cd", LocalSuggestionEngine.normalize("Node.js, C++, C#, CI/CD."));
+
+        List<LocalSuggestionEngine.Match> matches = engine.rank(Map.of(
+                "skills", "Python, machine learning and statistics"), 1);
+
+        assertEquals("Data Scientist", matches.get(0).title());
+        assertTrue(matches.get(0).matchedSkills().contains("machine learning"));
+    }
+
+    @Test
+    void testLocationDemotesJobsThatCannotBeRemote() {
+        Map<String, String> answers = Map.of("skills", "Patient care, CPR, first aid", "location", "Remote");
+
+        List<LocalSuggestionEngine.Match> matches = engine.rank(answers, 5);
+
+        // Nursing matches the skills but is on-site only, so remote-friendly roles can overtake it
+        LocalSuggestionEngine.Match nurse = matches.stream()
+                .filter(match -> match.title().equals("Registered Nurse")).findFirst().orElseThrow();
+        assertFalse(nurse.locationMatch());
+        assertTrue(engine.suggest(answers).startsWith("1. Job Title: "));
+    }
+
+    @Test
+    void testUnmatchedAnswersStillProduceSuggestions() {
+        String text = engine.suggest(Map.of("skills", "zzz qqq"));
+
+        assertTrue(text.startsWith("1. Job Title: "));
+        assertTrue(text.contains("5. Job Title: "));
+    }
+
+    @Test
+    void testRankingStaysUnderAMillisecond() {
+        Map<String, String> answers = Map.of(
+                "workHistory", "Three years as a cashier, then a shift lead at a grocery store",
+                "skills", "Customer service, scheduling, cash handling, Excel",
+                "personality", "Friendly, organized and calm under pressure",
+                "location", "On-site",
+                "rolePreference", "Store manager or operations");
+        for (int i = 0; i < 2_000; i++) {
+            engine.suggest(answers);
+        }
+
+        int runs = 1_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            engine.suggest(answers);
+        }
+        long averageNanos = (System.nanoTime() - start) / runs;
+
+        assertTrue(averageNanos < 1_000_000, "average " + averageNanos + "ns");
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.jobsuggestions.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MaxTokensPolicyTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // min 256, max 600, base 450 + 1 per answer token, 25% headroom, window 10, 5 samples to learn
+    private MaxTokensPolicy policy(boolean adaptive) {
+        return new MaxTokensPolicy(adaptive, 256, 600, 450, 1.0, 25, 10, 5, registry);
+    }
+
+    private static Map<String, String> answersOfTokens(int tokens) {
+        return Map.of("experience", "x".repeat(tokens * TokenEstimator.CHARS_PER_TOKEN));
+    }
+
+    @Test
+    void testCapGrowsWithAnswerRichnessUntilLearned() {
+        MaxTokensPolicy policy = policy(true);
+
+        MaxTokensPolicy.Decision simple = policy.decide(Map.of("skills", "Java"));
+        MaxTokensPolicy.Decision rich = policy.decide(answersOfTokens(300));
+
+        assertEquals("small", simple.tierName());
+        assertEquals(451, simple.maxTokens());
+        assertEquals("large", rich.tierName());
+        assertEquals(600, rich.maxTokens());
+        assertEquals(600, policy(false).decide(Map.of("skills", "Java")).maxTokens());
+    }
+
+    @Test
+    void testLearnsTierCapFromObservedUsage() {
+        MaxTokensPolicy policy = policy(true);
+        MaxTokensPolicy.Decision decision = policy.decide(Map.of("skills", "Java"));
+
+        for (int tokens : new int[]{180, 200, 220, 240, 260}) {
+            policy.observe(decision, new LlmCompletion("text", 100, tokens), tokens * 10_000_000L);
+        }
+
+        // p95 of the window (260) plus 25% headroom
+        assertEquals(325, policy.decide(Map.of("skills", "SQL")).maxTokens());
+        // Other tiers keep their answer-based cap
+        assertEquals(600, policy.decide(answersOfTokens(300)).maxTokens());
+        assertEquals(5, registry.get("suggestions.ai.tokens").tag("type", "completion").tag("tier", "small")
+                .summary().count());
+        assertEquals(10.0, registry.get("suggestions.ai.latency.per.token").tag("tier", "small")
+                .summary().max(), 0.001);
+    }
+
+    @Test
+    void testTruncatedCompletionsRaiseTheCap() {
+        MaxTokensPolicy policy = policy(true);
+        MaxTokensPolicy.Decision first = policy.decide(Map.of("skills", "Java"));
+        for (int i = 0; i < 5; i++) {
+            policy.observe(first, new LlmCompletion("text", 100, 200), 1_000_000_000L);
+        }
+        MaxTokensPolicy.Decision learned = policy.decide(Map.of("skills", "Java"));
+        assertEquals(256, learned.maxTokens());
+
+        // Answers cut off at the cap count as needing the headroom on top of it
+        policy.observe(learned, new LlmCompletion("text", 100, 256), 1_000_000_000L);
+
+        assertEquals(400, policy.decide(Map.of("skills", "Java")).maxTokens());
+        assertEquals(1.0, registry.get("suggestions.ai.truncated").tag("tier", "small").counter().count());
+    }
+
+    @Test
+    void testCompletionsWithoutUsageAreNotLearnedFrom() {
+        MaxTokensPolicy policy = policy(true);
+        MaxTokensPolicy.Decision decision = policy.decide(Map.of("skills", "Java"));
+
+        for (int i = 0; i < 10; i++) {
+            policy.observe(decision, LlmCompletion.of("text"), 1_000_000L);
+        }
+
+        assertEquals(decision.maxTokens(), policy.decide(Map.of("skills", "Java")).maxTokens());
+        assertNull(registry.find("suggestions.ai.tokens").summary());
+        assertEquals(10, registry.get("suggestions.ai.max.tokens").summary().count());
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.jobsuggestions.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenRouterLlmClientTest {
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testExtractCompletion() throws Exception {
+        // Fields before and around choices (including nested ones) are skipped
+        String body = "{\"id\":\"gen-1\",\"provider\":{\"name\":\"OpenAI\",\"tags\":[1,2]},"
+                + "\"choices\":[{\"index\":0,\"logprobs\":null,\"message\":{\"role\":\"assistant\",\"content\":\"1. Web Developer\\n\"}},"
+                + "{\"index\":1,\"message\":{\"content\":\"ignored\"}}],"
+                + "\"usage\":{\"prompt_tokens\":10,\"completion_tokens\":42,\"total_tokens\":52,\"details\":{\"cached\":0}}}";
+        LlmCompletion completion = OpenRouterLlmClient.extractCompletion(bytes(body));
+        assertEquals("1. Web Developer\n", completion.text());
+        assertEquals(10, completion.promptTokens());
+        assertEquals(42, completion.completionTokens());
+
+        LlmCompletion withoutUsage = OpenRouterLlmClient.extractCompletion(
+                bytes("{\"choices\":[{\"message\":{\"content\":\"1. Analyst\"}}]}"));
+        assertEquals("1. Analyst", withoutUsage.text());
+        assertFalse(withoutUsage.hasUsage());
+
+        Exception error = assertThrows(Exception.class, () -> OpenRouterLlmClient.extractCompletion(
+                bytes("{\"error\":{\"code\":429,\"message\":\"Rate limited\"}}")));
+        assertEquals("API error: Rate limited", error.getMessage());
+        assertThrows(Exception.class, () -> OpenRouterLlmClient.extractCompletion(bytes("{\"choices\":[]}")));
+    }
+
+    @Test
+    void testExtractStreamDelta() throws Exception {
+        // Test parsing of OpenRouter SSE chunks
+        assertEquals("Data ", OpenRouterLlmClient.extractStreamDelta(
+                "data: {\"choices\":[{\"delta\":{\"content\":\"Data \"}}]}"));
+        assertNull(OpenRouterLlmClient.extractStreamDelta(": OPENROUTER PROCESSING"));
+        assertNull(OpenRouterLlmClient.extractStreamDelta(""));
+        assertNull(OpenRouterLlmClient.extractStreamDelta("data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}"));
+        assertTrue(OpenRouterLlmClient.isStreamTerminator("data: [DONE]"));
+        assertThrows(Exception.class, () -> OpenRouterLlmClient.extractStreamDelta(
+                "data: {\"error\":{\"message\":\"Rate limited\"}}"));
+
+        // The final chunk carries the usage of the whole stream
+        LlmCompletion last = OpenRouterLlmClient.extractStreamChunk(
+                "data: {\"choices\":[],\"usage\":{\"prompt_tokens\":120,\"completion_tokens\":310}}");
+        assertNull(last.text());
+        assertEquals(120, last.promptTokens());
+        assertEquals(310, last.completionTokens());
+    }
+
+    @Test
+    void testErrorMessageAndRequestBody() throws Exception {
+        assertEquals("Invalid key", OpenRouterLlmClient.errorMessage(bytes("{\"error\":{\"message\":\"Invalid key\"}}")));
+        assertNull(OpenRouterLlmClient.errorMessage(bytes("<html>Bad Gateway</html>")));
+
+        OpenRouterLlmClient client = new OpenRouterLlmClient("http://localhost", "test/model", 1000, 1000, 1000, 1, "platform",
+                new SimpleMeterRegistry());
+        try {
+            JsonNode body = new ObjectMapper().readTree(client.requestBody("Say \"hi\"", 320, true));
+            assertEquals("test/model", body.get("model").asText());
+            assertEquals("Say \"hi\"", body.get("messages").get(0).get("content").asText());
+            assertEquals(320, body.get("max_tokens").asInt());
+            assertTrue(body.get("stream").asBoolean());
+            assertTrue(body.get("stream_options").get("include_usage").asBoolean());
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    void testRequestsAreTimedByStatus() throws Exception {
+        // Local stand-in for OpenRouter: /ok answers, /fail returns 500, /slow never answers in time
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        byte[] ok = bytes("{\"choices\":[{\"message\":{\"content\":\"1. Analyst\"}}]}");
+        server.createContext("/ok/chat/completions", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, ok.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(ok);
+            }
+        });
+        server.createContext("/fail/chat/completions", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        server.createContext("/slow/chat/completions", exchange -> {
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        // Only /slow gets a request timeout short enough to hit
+        OpenRouterLlmClient okClient = client(base + "/ok", 5_000, registry);
+        OpenRouterLlmClient failClient = client(base + "/fail", 5_000, registry);
+        OpenRouterLlmClient slowClient = client(base + "/slow", 300, registry);
+        try {
+            assertEquals("1. Analyst", okClient.complete("prompt", 600).get().text());
+            assertThrows(ExecutionException.class, () -> failClient.complete("prompt", 600).get());
+            assertThrows(ExecutionException.class, () -> slowClient.complete("prompt", 600).get());
+
+            for (String status : new String[]{"200", "500", "timeout"}) {
+                assertEquals(1, registry.get("openrouter.requests").tag("status", status).timer().count(), status);
+            }
+        } finally {
+            okClient.shutdown();
+            failClient.shutdown();
+            slowClient.shutdown();
+            server.stop(0);
+        }
+    }
+
+    private static OpenRouterLlmClient client(String baseUrl, long requestTimeoutMs, SimpleMeterRegistry registry) {
+        return new OpenRouterLlmClient(baseUrl, "test/model", 5_000, requestTimeoutMs, 5_000, 1, "platform", registry);
+    }
+
+    @Test
+    void testStalledResponsesTimeOut() throws Exception {
+        // Both endpoints send their headers and a first piece of the body, then hang
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/chat/completions", exchange -> {
+            boolean stream = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8).contains("\"stream\":true");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes(stream ? "data: {\"choices\":[{\"delta\":{\"content\":\"1. Ana\"}}]}\n\n" : "{\"choices\":"));
+                out.flush();
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException | java.io.IOException e) {
+                // The client gave up on the connection
+            }
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        // 2 s for the whole response, 300 ms between stream lines
+        OpenRouterLlmClient client = new OpenRouterLlmClient(base, "test/model", 1000, 2_000, 300, 1, "platform",
+                new SimpleMeterRegistry());
+        try {
+            long startedAt = System.nanoTime();
+            ExecutionException completeError = assertThrows(ExecutionException.class,
+                    () -> client.complete("prompt", 600).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(HttpTimeoutException.class, completeError.getCause());
+            assertTrue(System.nanoTime() - startedAt < TimeUnit.SECONDS.toNanos(4));
+
+            startedAt = System.nanoTime();
+            StringBuilder deltas = new StringBuilder();
+            ExecutionException streamError = assertThrows(ExecutionException.class,
+                    () -> client.stream("prompt", 600, deltas::append).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(HttpTimeoutException.class, streamError.getCause());
+            assertEquals("1. Ana", deltas.toString());
+            // Cut off by the idle gap, well before the 2 s deadline
+            assertTrue(System.nanoTime() - startedAt < TimeUnit.MILLISECONDS.toNanos(1_500));
+        } finally {
+            release.countDown();
+            client.shutdown();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testMoreConcurrentStreamsThanExecutorThreads() throws Exception {
+        // Every stream sends its first chunk and then waits until all streams have delivered
+        // theirs, which only happens if they are all being read at the same time, each blocking
+        // a thread of its own
+        int executorThreads = 2;
+        int streams = 4 * executorThreads;
+        CountDownLatch firstDeltas = new CountDownLatch(streams);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/chat/completions", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes("data: {\"choices\":[{\"delta\":{\"content\":\"1. Analyst\"}}]}\n\n"));
+                out.flush();
+                firstDeltas.await(5, TimeUnit.SECONDS);
+                out.write(bytes("data: {\"choices\":[{\"delta\":{\"content\":\"\\n2. Tester\"}}]}\n\ndata: [DONE]\n\n"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+        OpenRouterLlmClient client = new OpenRouterLlmClient("http://127.0.0.1:" + server.getAddress().getPort(),
+                "test/model", 1000, 10_000, 5_000, executorThreads, "platform", new SimpleMeterRegistry());
+        try {
+            List<CompletableFuture<LlmCompletion>> pending = new ArrayList<>();
+            Set<String> readers = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < streams; i++) {
+                AtomicBoolean first = new AtomicBoolean(true);
+                pending.add(client.stream("prompt", 600, delta -> {
+                    readers.add(Thread.currentThread().getName());
+                    if (first.getAndSet(false)) {
+                        firstDeltas.countDown();
+                    }
+                }));
+            }
+            assertTrue(firstDeltas.await(5, TimeUnit.SECONDS), "streams were not read concurrently");
+            for (CompletableFuture<LlmCompletion> stream : pending) {
+                assertEquals("1. Analyst\n2. Tester", stream.get(5, TimeUnit.SECONDS).text());
+            }
+            // Streams are read on the response pool, never on the HttpClient's or a shared one
+            assertTrue(readers.stream().allMatch(name -> name.startsWith("openrouter-response-")), readers.toString());
+        } finally {
+            client.shutdown();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testStubStreamsSameTextItCompletes() throws Exception {
+        StubLlmClient stub = new StubLlmClient(0, 0, 7);
+        StringBuilder deltas = new StringBuilder();
+
+        LlmCompletion streamed = stub.stream("prompt", 600, deltas::append).get();
+
+        assertEquals(stub.complete("prompt", 600).get(), streamed);
+        assertEquals(streamed.text(), deltas.toString());
+        assertTrue(streamed.hasUsage());
+    }
+
+    @Test
+    void testStubHonoursMaxTokens() throws Exception {
+        StubLlmClient stub = new StubLlmClient(0, 0, 7);
+
+        LlmCompletion capped = stub.complete("prompt", 50).get();
+
+        assertEquals(50, capped.completionTokens());
+        assertTrue(capped.text().length() <= TokenEstimator.charBudget(50));
+    }
+}
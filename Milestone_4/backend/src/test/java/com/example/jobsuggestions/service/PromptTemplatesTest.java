@@ -0,0 +1,66 @@
+package com.example.jobsuggestions.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptTemplatesTest {
+
+    @Test
+    void testLabelsMatchRegexConversion() {
+        for (String key : new String[]{"workHistory", "skills", "personalityTraits", "URL", "aB", "X", ""}) {
+            String expected = key.replaceAll("([A-Z])", " $1").trim();
+            assertEquals(expected.isEmpty() ? key : expected, PromptLabels.labelFor(key));
+        }
+    }
+
+    @Test
+    void testCareerV1RendersOriginalPrompt() {
+        PromptTemplates templates = new PromptTemplates(PromptTemplates.CAREER_V1, 3000);
+        Map<String, String> answers = new LinkedHashMap<>();
+        answers.put("workHistory", "Cashier at Publix");
+        answers.put("skills", "CSS");
+
+        String prompt = templates.render(templates.active(), answers);
+
+        assertTrue(prompt.startsWith("You are an expert career counselor. Analyze ALL"));
+        assertTrue(prompt.contains("User's complete survey responses:\n- work History: Cashier at Publix\n- skills: CSS\n\nBased on ALL"));
+        assertTrue(prompt.endsWith("not just variations of their role preference."));
+    }
+
+    @Test
+    void testSelectableById() {
+        PromptTemplates templates = new PromptTemplates(PromptTemplates.CAREER_V2, 3000);
+        assertEquals(PromptTemplates.CAREER_V2, templates.active().getId());
+        assertEquals(PromptTemplates.CAREER_V1, templates.get(PromptTemplates.CAREER_V1).getId());
+        assertThrows(IllegalArgumentException.class, () -> new PromptTemplates("career-v0", 3000));
+    }
+
+    @Test
+    void testLongAnswersAreTrimmedToBudget() {
+        PromptTemplates templates = new PromptTemplates(PromptTemplates.CAREER_V1, 400);
+        Map<String, String> answers = new LinkedHashMap<>();
+        answers.put("skills", "CSS");
+        answers.put("workHistory", "x".repeat(5_000));
+
+        String prompt = templates.render(templates.active(), answers);
+
+        assertTrue(TokenEstimator.estimate(prompt) <= 400, "estimated " + TokenEstimator.estimate(prompt));
+        assertTrue(prompt.contains("- skills: CSS\n"));
+        assertTrue(prompt.contains("x" + PromptTemplate.TRUNCATION_MARKER + "\n"));
+    }
+
+    @Test
+    void testRejectsPromptThatCannotFit() {
+        PromptTemplates templates = new PromptTemplates(PromptTemplates.CAREER_V1, 300);
+        Map<String, String> answers = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            answers.put("question" + i, "y".repeat(200));
+        }
+
+        assertThrows(PromptBudgetExceededException.class, () -> templates.render(templates.active(), answers));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.jobsuggestions.service;
+
+import com.example.jobsuggestions.model.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionBatchServiceTest {
+
+    @Mock
+    private SuggestionService suggestionService;
+
+    @Mock
+    private EntryNumberAllocator entryNumberAllocator;
+
+    @InjectMocks
+    private SuggestionBatchService suggestionBatchService;
+
+    private final List<CompletableFuture<GeneratedSuggestions>> generations = new ArrayList<>();
+    private final List<List<Suggestion>> inserts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(suggestionBatchService, "parallelism", 2);
+        lenient().when(suggestionService.generateWithFallbackAsync(any())).thenAnswer(invocation -> {
+            CompletableFuture<GeneratedSuggestions> generation = new CompletableFuture<>();
+            generations.add(generation);
+            return generation;
+        });
+        lenient().when(suggestionService.newSuggestion(eq(1L), anyInt(), any(), any())).thenAnswer(invocation ->
+                new Suggestion(invocation.getArgument(2), ((GeneratedSuggestions) invocation.getArgument(3)).text(),
+                        1L, invocation.<Integer>getArgument(1)));
+        lenient().when(suggestionService.insertSuggestions(anyList())).thenAnswer(invocation -> {
+            List<Suggestion> suggestions = invocation.getArgument(0);
+            inserts.add(suggestions);
+            return suggestions;
+        });
+    }
+
+    @Test
+    void testRunsAtMostParallelismGenerationsInContiguousEntries() {
+        when(entryNumberAllocator.allocate(1L, 4)).thenReturn(11);
+        List<SuggestionBatchService.Outcome> outcomes = new ArrayList<>();
+
+        CompletableFuture<Void> done = suggestionBatchService.submit(1L, List.of(
+                Map.of("skills", "Java"), Map.of("skills", "Go"), Map.of("skills", "SQL"), Map.of("skills", "Rust")),
+                outcomes::add);
+
+        assertEquals(2, generations.size());
+        generations.get(1).complete(GeneratedSuggestions.ai("Go text"));
+        assertEquals(3, generations.size());
+        generations.get(0).complete(GeneratedSuggestions.ai("Java text"));
+        generations.get(2).completeExceptionally(new CompletionException(new PromptBudgetExceededException("too long")));
+        generations.get(3).complete(GeneratedSuggestions.local("Rust text"));
+
+        assertTrue(done.isDone());
+        verify(entryNumberAllocator).allocate(1L, 4);
+        assertEquals(List.of(1, 0, 2, 3), outcomes.stream().map(SuggestionBatchService.Outcome::index).toList());
+        assertEquals(List.of(12, 11, 13, 14), outcomes.stream().map(SuggestionBatchService.Outcome::entryNumber).toList());
+        assertEquals("Go text", outcomes.get(0).saved().getSuggestions());
+        assertFalse(outcomes.get(2).succeeded());
+        assertEquals("AI generation failed: too long", outcomes.get(2).error());
+    }
+
+    @Test
+    void testItemsFinishedDuringSaveAreInsertedTogether() {
+        when(entryNumberAllocator.allocate(1L, 3)).thenReturn(1);
+        ReflectionTestUtils.setField(suggestionBatchService, "parallelism", 3);
+        List<SuggestionBatchService.Outcome> outcomes = new ArrayList<>();
+        // The other two generations finish while the first item is being saved
+        doAnswer(invocation -> {
+            List<Suggestion> suggestions = invocation.getArgument(0);
+            inserts.add(suggestions);
+            if (inserts.size() == 1) {
+                generations.get(1).complete(GeneratedSuggestions.ai("b"));
+                generations.get(2).complete(GeneratedSuggestions.ai("c"));
+            }
+            return suggestions;
+        }).when(suggestionService).insertSuggestions(anyList());
+
+        CompletableFuture<Void> done = suggestionBatchService.submit(1L, List.of(
+                Map.of("skills", "a"), Map.of("skills", "b"), Map.of("skills", "c")), outcomes::add);
+        generations.get(0).complete(GeneratedSuggestions.ai("a"));
+
+        assertTrue(done.isDone());
+        assertEquals(2, inserts.size());
+        assertEquals(1, inserts.get(0).size());
+        assertEquals(2, inserts.get(1).size());
+        assertEquals(3, outcomes.size());
+    }
+
+    @Test
+    void testEmptyAnswersFailWithoutGenerating() {
+        when(entryNumberAllocator.allocate(1L, 2)).thenReturn(5);
+        List<SuggestionBatchService.Outcome> outcomes = new ArrayList<>();
+
+        suggestionBatchService.submit(1L, List.of(Map.of(), Map.of("skills", "Java")), outcomes::add);
+        generations.get(0).complete(GeneratedSuggestions.ai("Java text"));
+
+        verify(suggestionService, times(1)).generateWithFallbackAsync(any());
+        assertEquals("Answers cannot be empty", outcomes.get(0).error());
+        assertEquals(6, outcomes.get(1).entryNumber());
+        assertTrue(outcomes.get(1).succeeded());
+    }
+
+    @Test
+    void testStopsStartingItemsWhenListenerFails() {
+        when(entryNumberAllocator.allocate(1L, 3)).thenReturn(1);
+        ReflectionTestUtils.setField(suggestionBatchService, "parallelism", 1);
+
+        CompletableFuture<Void> done = suggestionBatchService.submit(1L, List.of(
+                Map.of("skills", "a"), Map.of("skills", "b"), Map.of("skills", "c")), outcome -> {
+                    throw new IllegalStateException("client went away");
+                });
+        generations.get(0).complete(GeneratedSuggestions.ai("a"));
+        generations.get(1).complete(GeneratedSuggestions.ai("b"));
+
+        assertTrue(done.isCompletedExceptionally());
+        // The second generation started before the first outcome was reported; nothing after it
+        assertEquals(2, generations.size());
+    }
+}
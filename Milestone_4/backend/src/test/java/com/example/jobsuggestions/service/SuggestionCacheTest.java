@@ -0,0 +1,78 @@
+package com.example.jobsuggestions.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionCacheTest {
+
+    @Test
+    void testFingerprint_IgnoresOrderWhitespaceAndCase() {
+        Map<String, String> first = new LinkedHashMap<>();
+        first.put("skills", "Java, SQL");
+        first.put("location", "Remote");
+
+        Map<String, String> second = new LinkedHashMap<>();
+        second.put("location", "  remote ");
+        second.put("skills", "JAVA, sql");
+
+        assertEquals(SuggestionCache.fingerprint(first, "model-a", "v1"), SuggestionCache.fingerprint(second, "model-a", "v1"));
+        assertNotEquals(SuggestionCache.fingerprint(first, "model-a", "v1"), SuggestionCache.fingerprint(first, "model-b", "v1"));
+        assertNotEquals(SuggestionCache.fingerprint(first, "model-a", "v1"), SuggestionCache.fingerprint(first, "model-a", "v2"));
+    }
+
+    @Test
+    void testFingerprint_DistinguishesValues() {
+        Map<String, String> first = new HashMap<>();
+        first.put("skills", "Java");
+        Map<String, String> second = new HashMap<>();
+        second.put("skills", "Python");
+
+        assertNotEquals(SuggestionCache.fingerprint(first, "m", "v1"), SuggestionCache.fingerprint(second, "m", "v1"));
+    }
+
+    @Test
+    void testGetAndPut_CountsHitsAndMisses() {
+        SuggestionCache cache = new SuggestionCache(10_000, 60);
+
+        assertNull(cache.get("a"));
+        cache.put("a", "suggestions");
+        assertEquals("suggestions", cache.get("a"));
+
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedByWeight() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, Long.MAX_VALUE, String::length);
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.get("a"); // "b" is now least recently used
+        cache.put("c", "cccc");
+
+        assertNull(cache.get("b"));
+        assertEquals("aaaa", cache.get("a"));
+        assertEquals("cccc", cache.get("c"));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(8, cache.weight());
+    }
+
+    @Test
+    void testExpiresEntriesAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, 1_000, String::length, now::get);
+        cache.put("a", "value");
+        now.set(999);
+        assertEquals("value", cache.get("a"));
+        now.set(1_000);
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.size());
+    }
+}
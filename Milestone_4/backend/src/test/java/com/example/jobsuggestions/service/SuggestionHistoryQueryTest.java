@@ -0,0 +1,239 @@
+package com.example.jobsuggestions.service;
+
+import com.example.jobsuggestions.model.Suggestion;
+import com.example.jobsuggestions.model.SuggestionListVersion;
+import com.example.jobsuggestions.model.SuggestionSummary;
+import com.example.jobsuggestions.model.User;
+import com.example.jobsuggestions.repository.SuggestionRepository;
+import com.example.jobsuggestions.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Listing a user's history must cost the same number of queries no matter how many
+// suggestions the user has (no per-suggestion SELECT for the answers).
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class SuggestionHistoryQueryTest {
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SuggestionRepository suggestionRepository;
+
+    @Autowired
+    private AnswersStorageMigration answersStorageMigration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void testListQueryCountIsFlatWithHistorySize() {
+        User small = createUserWithHistory("history-small", 5);
+        User large = createUserWithHistory("history-large", 200);
+
+        long smallStatements = countStatementsForListing(small, 5);
+        long largeStatements = countStatementsForListing(large, 200);
+
+        assertEquals(1, smallStatements);
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    @Test
+    void testStreamedSummariesMatchListInOneQueryWithoutEntities() {
+        User user = createUserWithHistory("history-streamed", 40);
+        List<SuggestionSummary> listed = suggestionService.getSuggestionSummaries(user.getId());
+
+        statistics.clear();
+        List<SuggestionSummary> streamed = new ArrayList<>();
+        suggestionService.forEachSummary(user.getId(), streamed::add);
+
+        assertEquals(listed, streamed);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testKeysetPageUsesUserEntryIndex() {
+        User user = createUserWithHistory("history-paged", 30);
+
+        List<SuggestionSummary> page = suggestionService.getSuggestionSummariesAfter(user.getId(), 20, 5);
+        assertEquals(List.of(21, 22, 23, 24, 25), page.stream().map(SuggestionSummary::entryNumber).toList());
+
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT * FROM suggestions WHERE user_id = ? AND entry_number > ? ORDER BY entry_number LIMIT 5",
+                String.class, user.getId(), 20);
+        assertTrue(plan.contains("IDX_SUGGESTIONS_USER_ENTRY"), plan);
+    }
+
+    @Test
+    void testSummariesCarryOnlyHeadline() {
+        User user = userRepository.save(new User("history-summary", "not-a-real-hash"));
+        String longText = "1. Job Title: Data Analyst\n" + "x".repeat(5_000);
+        suggestionService.saveSuggestion(user.getId(), Map.of("skills", "SQL"), longText);
+
+        statistics.clear();
+        List<SuggestionSummary> summaries = suggestionService.getSuggestionSummaries(user.getId());
+
+        assertEquals(1, summaries.size());
+        assertEquals(SuggestionSummary.HEADLINE_LENGTH, summaries.get(0).headline().length());
+        assertTrue(summaries.get(0).headline().startsWith("1. Job Title: Data Analyst"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testSaveAndListNeverLoadUserEntity() {
+        Long userId = userRepository.save(new User("history-by-id", "not-a-real-hash")).getId();
+
+        statistics.clear();
+        suggestionService.saveSuggestion(userId, Map.of("skills", "Go"), "AI text");
+        suggestionService.getAllSuggestionsByUser(userId);
+        suggestionService.getSuggestionSummaries(userId);
+
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getFetchCount());
+    }
+
+    @Test
+    void testMigrationMovesLegacyAnswersToJsonColumn() {
+        User user = userRepository.save(new User("history-legacy", "not-a-real-hash"));
+        Suggestion legacy = new Suggestion(null, "AI text", user, 1);
+        legacy.setAnswersInTable(Map.of("skills", "Java", "location", "Remote"));
+        suggestionRepository.save(legacy);
+        assertEquals(2, countLegacyRows(user));
+
+        assertEquals(1, answersStorageMigration.migrate());
+
+        assertEquals(0, countLegacyRows(user));
+        Suggestion migrated = suggestionService.getSuggestionById(user.getId(), 1);
+        assertEquals(Map.of("skills", "Java", "location", "Remote"), migrated.getAnswers());
+    }
+
+    @Test
+    void testBulkDeleteRunsWithoutLoadingEntities() {
+        User user = createUserWithHistory("history-bulk-delete", 10);
+        Suggestion legacy = new Suggestion(null, "AI text", user, 11);
+        legacy.setAnswersInTable(Map.of("skills", "Java", "location", "Remote"));
+        suggestionRepository.save(legacy);
+        User other = createUserWithHistory("history-bulk-keep", 3);
+
+        statistics.clear();
+        int deleted = suggestionService.deleteSuggestions(user.getId(), List.of(2, 4, 11, 99));
+
+        assertEquals(3, deleted);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, countLegacyRows(user));
+        assertEquals(8, suggestionService.getSuggestionSummaries(user.getId()).size());
+
+        statistics.clear();
+        assertEquals(8, suggestionService.deleteAllSuggestions(user.getId()));
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertTrue(suggestionService.getSuggestionSummaries(user.getId()).isEmpty());
+        assertEquals(3, suggestionService.getSuggestionSummaries(other.getId()).size());
+    }
+
+    @Test
+    void testInsertSuggestionsBatchesRowsWithoutSelects() {
+        Long userId = userRepository.save(new User("history-batch-insert", "not-a-real-hash")).getId();
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            suggestions.add(suggestionService.newSuggestion(userId, i, Map.of("skills", "Java " + i),
+                    GeneratedSuggestions.ai("AI text " + i)));
+        }
+
+        statistics.clear();
+        suggestionService.insertSuggestions(suggestions);
+
+        // One prepared INSERT, executed as a JDBC batch
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(20, statistics.getEntityInsertCount());
+        assertEquals(20, suggestionService.getSuggestionSummaries(userId).size());
+    }
+
+    @Test
+    void testVersionQueriesTrackChangesWithoutLoadingRows() {
+        User user = createUserWithHistory("history-versions", 3);
+
+        statistics.clear();
+        SuggestionListVersion initial = suggestionService.getListVersion(user.getId());
+        assertEquals(0L, suggestionService.getSuggestionVersion(user.getId(), 2));
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(new SuggestionListVersion(3, 3, 0L), initial);
+
+        Suggestion suggestion = suggestionRepository.findByUserIdAndEntryNumber(user.getId(), 2).orElseThrow();
+        suggestion.setSuggestions("Edited text");
+        suggestionRepository.save(suggestion);
+        assertEquals(1L, suggestionService.getSuggestionVersion(user.getId(), 2));
+        SuggestionListVersion edited = suggestionService.getListVersion(user.getId());
+        assertNotEquals(initial, edited);
+
+        suggestionService.deleteSuggestion(user.getId(), 1);
+        SuggestionListVersion deleted = suggestionService.getListVersion(user.getId());
+        assertNotEquals(edited, deleted);
+        assertNull(suggestionService.getSuggestionVersion(user.getId(), 1));
+
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT COUNT(*), MAX(entry_number), SUM(version) FROM suggestions WHERE user_id = ?",
+                String.class, user.getId());
+        assertTrue(plan.contains("IDX_SUGGESTIONS_USER_ENTRY"), plan);
+    }
+
+    private User createUserWithHistory(String username, int size) {
+        User user = userRepository.save(new User(username, "not-a-real-hash"));
+        for (int i = 0; i < size; i++) {
+            suggestionService.saveSuggestion(user.getId(), Map.of("skills", "Java " + i, "location", "Remote"), "AI text " + i);
+        }
+        return user;
+    }
+
+    private long countStatementsForListing(User user, int expectedSize) {
+        statistics.clear();
+        long start = System.nanoTime();
+        List<Suggestion> history = suggestionService.getAllSuggestionsByUser(user.getId());
+        int answerCount = 0;
+        for (Suggestion suggestion : history) {
+            answerCount += suggestion.getAnswers().size();
+        }
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+        System.out.println("Listed " + history.size() + " suggestions in " + elapsedMicros + "us, "
+                + statistics.getPrepareStatementCount() + " statement(s)");
+
+        assertEquals(expectedSize, history.size());
+        assertEquals(expectedSize * 2, answerCount);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private int countLegacyRows(User user) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM suggestion_answers WHERE user_id = ?", Integer.class, user.getId());
+    }
+}
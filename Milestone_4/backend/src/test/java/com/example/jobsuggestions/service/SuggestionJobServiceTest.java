@@ -0,0 +1,75 @@
+package com.example.jobsuggestions.service;
+
+import com.example.jobsuggestions.model.SuggestionJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionJobServiceTest {
+
+    @Mock
+    private SuggestionService suggestionService;
+
+    @InjectMocks
+    private SuggestionJobService suggestionJobService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(suggestionJobService, "retentionMinutes", 10L);
+        ReflectionTestUtils.setField(suggestionJobService, "pendingTimeoutMinutes", 2L);
+        ReflectionTestUtils.setField(suggestionJobService, "maxJobs", 100);
+        // A generation that never finishes
+        when(suggestionService.generateWithFallbackAsync(any())).thenReturn(new CompletableFuture<>());
+    }
+
+    @Test
+    void testStalePendingJobIsFailedOnRead() {
+        SuggestionJob job = suggestionJobService.submit(1L, Map.of("skills", "Java"));
+        assertEquals(SuggestionJob.Status.PENDING, suggestionJobService.getJob(job.getId(), 1L).getStatus());
+
+        ReflectionTestUtils.setField(suggestionJobService, "pendingTimeoutMinutes", -1L);
+        SuggestionJob read = suggestionJobService.getJob(job.getId(), 1L);
+
+        assertEquals(SuggestionJob.Status.FAILED, read.getStatus());
+        assertEquals("AI generation timed out", read.getError());
+    }
+
+    @Test
+    void testPurgeExpiresPendingJobsThenDropsThemAfterRetention() {
+        SuggestionJob job = suggestionJobService.submit(1L, Map.of("skills", "Java"));
+        ReflectionTestUtils.setField(suggestionJobService, "pendingTimeoutMinutes", -1L);
+
+        suggestionJobService.purgeExpiredJobs();
+        assertEquals(SuggestionJob.Status.FAILED, job.getStatus());
+        assertSame(job, suggestionJobService.getJob(job.getId(), 1L));
+
+        ReflectionTestUtils.setField(suggestionJobService, "retentionMinutes", -1L);
+        suggestionJobService.purgeExpiredJobs();
+        assertNull(suggestionJobService.getJob(job.getId(), 1L));
+    }
+
+    @Test
+    void testSubmitIsRefusedWhenFull() {
+        ReflectionTestUtils.setField(suggestionJobService, "maxJobs", 1);
+        suggestionJobService.submit(1L, Map.of("skills", "Java"));
+
+        assertThrows(AiUnavailableException.class, () -> suggestionJobService.submit(1L, Map.of("skills", "SQL")));
+
+        // Room is made once the stale job has expired and passed retention
+        ReflectionTestUtils.setField(suggestionJobService, "pendingTimeoutMinutes", -1L);
+        ReflectionTestUtils.setField(suggestionJobService, "retentionMinutes", -1L);
+        assertNotNull(suggestionJobService.submit(1L, Map.of("skills", "SQL")));
+    }
+}
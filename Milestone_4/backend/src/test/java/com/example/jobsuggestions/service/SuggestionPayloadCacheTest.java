@@ -0,0 +1,56 @@
+package com.example.jobsuggestions.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionPayloadCacheTest {
+
+    private static SuggestionPayloadCache.Payload payload(String json) {
+        return new SuggestionPayloadCache.Payload(json.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    @Test
+    void testEntriesAreKeyedByVersion() {
+        SuggestionPayloadCache cache = new SuggestionPayloadCache(10_000, 60);
+        cache.put(1L, 1, 0L, payload("{\"v\":0}"));
+
+        assertNotNull(cache.get(1L, 1, 0L));
+        assertNull(cache.get(1L, 1, 1L));
+        assertNull(cache.get(2L, 1, 0L));
+    }
+
+    @Test
+    void testEvictionRemovesEveryVersionOfTheEntries() {
+        SuggestionPayloadCache cache = new SuggestionPayloadCache(10_000, 60);
+        cache.put(1L, 1, 0L, payload("{}"));
+        cache.put(1L, 1, 1L, payload("{}"));
+        cache.put(1L, 2, 0L, payload("{}"));
+        cache.put(1L, 3, 0L, payload("{}"));
+        cache.put(2L, 1, 0L, payload("{}"));
+
+        cache.evict(1L, List.of(1, 2));
+        assertNull(cache.get(1L, 1, 1L));
+        assertNull(cache.get(1L, 2, 0L));
+        assertNotNull(cache.get(1L, 3, 0L));
+
+        cache.evictUser(1L);
+        assertNull(cache.get(1L, 3, 0L));
+        assertNotNull(cache.get(2L, 1, 0L));
+        assertEquals(1, cache.stats().get("size"));
+    }
+
+    @Test
+    void testWeightCountsGzipBytes() {
+        SuggestionPayloadCache cache = new SuggestionPayloadCache(10_000, 60);
+        SuggestionPayloadCache.Payload plain = payload("{\"suggestions\":\"text\"}");
+        cache.put(1L, 1, 0L, plain);
+        long plainWeight = (long) cache.stats().get("weight");
+
+        cache.put(1L, 1, 0L, plain.withGzip(new byte[40]));
+        assertEquals(plainWeight + 40, cache.stats().get("weight"));
+    }
+}
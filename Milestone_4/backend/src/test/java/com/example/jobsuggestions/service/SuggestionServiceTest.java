@@ -4,21 +4,30 @@ import com.example.jobsuggestions.model.Suggestion;
 import com.example.jobsuggestions.model.SuggestionId;
 import com.example.jobsuggestions.model.User;
 import com.example.jobsuggestions.repository.SuggestionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,12 +36,36 @@ class SuggestionServiceTest {
     @Mock
     private SuggestionRepository suggestionRepository;
 
+    @Mock
+    private EntryNumberAllocator entryNumberAllocator;
+
+    @Mock
+    private LlmClient llmClient;
+
+    @Mock
+    private SuggestionCache suggestionCache;
+
+    @Mock
+    private SuggestionPayloadCache suggestionPayloadCache;
+
+    @Mock
+    private InFlightGenerations inFlightGenerations;
+
+    @Spy
+    private PromptTemplates promptTemplates = new PromptTemplates(PromptTemplates.CAREER_V1, 3000);
+
+    @Spy
+    private LocalSuggestionEngine localSuggestionEngine = new LocalSuggestionEngine(new ClassPathResource("job-index.json"));
+
     @InjectMocks
     private SuggestionService suggestionService;
 
     private User testUser;
     private Suggestion testSuggestion;
 
+    SuggestionServiceTest() throws Exception {
+    }
+
     @BeforeEach
     void setUp() {
         testUser = new User();
@@ -53,9 +86,9 @@ class SuggestionServiceTest {
     @Test
     void testGetAllSuggestionsByUser_EmptyList() {
         // Test getting all suggestions when list is empty
-        when(suggestionRepository.findByUserOrderByEntryNumberAsc(testUser)).thenReturn(new ArrayList<>());
+        when(suggestionRepository.findByUserIdOrderByEntryNumberAsc(1L)).thenReturn(new ArrayList<>());
         
-        List<Suggestion> result = suggestionService.getAllSuggestionsByUser(testUser);
+        List<Suggestion> result = suggestionService.getAllSuggestionsByUser(1L);
         assertNotNull(result);
         assertEquals(0, result.size());
     }
@@ -65,9 +98,9 @@ class SuggestionServiceTest {
         // Test getting all suggestions for a user
         List<Suggestion> suggestions = new ArrayList<>();
         suggestions.add(testSuggestion);
-        when(suggestionRepository.findByUserOrderByEntryNumberAsc(testUser)).thenReturn(suggestions);
+        when(suggestionRepository.findByUserIdOrderByEntryNumberAsc(1L)).thenReturn(suggestions);
         
-        List<Suggestion> result = suggestionService.getAllSuggestionsByUser(testUser);
+        List<Suggestion> result = suggestionService.getAllSuggestionsByUser(1L);
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testSuggestion.getUserId(), result.get(0).getUserId());
@@ -77,7 +110,7 @@ class SuggestionServiceTest {
     @Test
     void testGetSuggestionById() {
         // Test getting a suggestion by userId and entryNumber
-        when(suggestionRepository.findByUserIdAndEntryNumber(1L, 1)).thenReturn(Optional.of(testSuggestion));
+        when(suggestionRepository.findById(new SuggestionId(1L, 1))).thenReturn(Optional.of(testSuggestion));
 
         Suggestion result = suggestionService.getSuggestionById(1L, 1);
 
@@ -90,37 +123,117 @@ class SuggestionServiceTest {
     @Test
     void testGetSuggestionById_NotFound() {
         // Test getting a suggestion that doesn't exist
-        when(suggestionRepository.findByUserIdAndEntryNumber(999L, 1)).thenReturn(Optional.empty());
+        when(suggestionRepository.findById(new SuggestionId(999L, 1))).thenReturn(Optional.empty());
 
         Suggestion result = suggestionService.getSuggestionById(999L, 1);
 
         assertNull(result);
     }
 
+    @Test
+    void testSaveSuggestion_UsesAllocatedEntryNumber() {
+        // Test that the entry number comes from the allocator, not from counting rows
+        when(entryNumberAllocator.allocate(1L, 1)).thenReturn(7);
+        when(suggestionRepository.save(any(Suggestion.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Suggestion saved = suggestionService.saveSuggestion(1L, testSuggestion.getAnswers(), "AI text");
+
+        assertEquals(7, saved.getEntryNumber());
+        assertEquals(1L, saved.getUserId());
+        assertEquals(PromptTemplates.CAREER_V1, saved.getPromptVersion());
+        verify(suggestionRepository, never()).findByUserIdOrderByEntryNumberAsc(any());
+    }
+
     @Test
     void testDeleteSuggestion() {
         // Test deleting a suggestion
-        SuggestionId id = new SuggestionId(1L, 1);
-        when(suggestionRepository.existsById(id)).thenReturn(true);
-        doNothing().when(suggestionRepository).deleteById(id);
+        when(suggestionRepository.deleteByUserIdAndEntryNumberIn(1L, List.of(1))).thenReturn(1);
 
         boolean deleted = suggestionService.deleteSuggestion(1L, 1);
         assertTrue(deleted);
-        
-        verify(suggestionRepository).existsById(id);
-        verify(suggestionRepository).deleteById(id);
+
+        verify(suggestionRepository).deleteByUserIdAndEntryNumberIn(1L, List.of(1));
+        verify(suggestionRepository, never()).findById(any());
+        verify(suggestionPayloadCache).evict(1L, List.of(1));
     }
 
     @Test
     void testDeleteSuggestion_NotFound() {
         // Test deleting a suggestion that doesn't exist
-        SuggestionId id = new SuggestionId(999L, 1);
-        when(suggestionRepository.existsById(id)).thenReturn(false);
+        when(suggestionRepository.deleteByUserIdAndEntryNumberIn(999L, List.of(1))).thenReturn(0);
 
         boolean deleted = suggestionService.deleteSuggestion(999L, 1);
         assertFalse(deleted);
-        
-        verify(suggestionRepository).existsById(id);
-        verify(suggestionRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void testDeleteSuggestions_EmptyListRunsNoStatement() {
+        assertEquals(0, suggestionService.deleteSuggestions(1L, List.of()));
+
+        verify(suggestionRepository, never()).deleteByUserIdAndEntryNumberIn(any(), any());
+    }
+
+    @Test
+    void testCreateSuggestion_FallsBackToLocalEngineWhenAiFails() throws Exception {
+        ReflectionTestUtils.setField(suggestionService, "localFallbackEnabled", true);
+        when(inFlightGenerations.join(anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new AiUnavailableException("AI provider temporarily unavailable", 30)));
+        when(entryNumberAllocator.allocate(1L, 1)).thenReturn(1);
+        when(suggestionRepository.save(any(Suggestion.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Suggestion saved = suggestionService.createSuggestion(1L, Map.of("skills", "Java, Spring", "location", "Remote"));
+
+        assertTrue(saved.getSuggestions().startsWith("1. Job Title: "));
+        assertEquals(LocalSuggestionEngine.VERSION, saved.getPromptVersion());
+        assertTrue(saved.getExternalApiData().contains("\"aiGenerated\": false"));
+        // Fallback text must not be cached as if it were the AI answer
+        verify(suggestionCache, never()).put(anyString(), anyString());
+    }
+
+    @Test
+    void testCreateSuggestion_StoresTokenUsage() throws Exception {
+        when(inFlightGenerations.join(anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new LlmCompletion("1. Data Analyst", 120, 310)));
+        when(entryNumberAllocator.allocate(1L, 1)).thenReturn(1);
+        when(suggestionRepository.save(any(Suggestion.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Suggestion saved = suggestionService.createSuggestion(1L, Map.of("skills", "SQL"));
+
+        assertEquals("1. Data Analyst", saved.getSuggestions());
+        assertEquals(120, saved.getPromptTokens());
+        assertEquals(310, saved.getCompletionTokens());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGenerateSuggestions_DoesNotCacheTruncatedCompletion() {
+        // Fixed cap of 600 tokens
+        ReflectionTestUtils.setField(suggestionService, "maxTokensPolicy",
+                new MaxTokensPolicy(false, 256, 600, 450, 1.0, 25, 10, 5, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(suggestionService, "aiCallGuard", new AiCallGuard(20, 20, 10, 50, 20_000, 30, 3, 40_000));
+        ReflectionTestUtils.setField(suggestionService, "meterRegistry", new SimpleMeterRegistry());
+        when(inFlightGenerations.join(anyString(), any()))
+                .thenAnswer(invocation -> ((Supplier<CompletableFuture<LlmCompletion>>) invocation.getArgument(1)).get());
+        when(llmClient.complete(anyString(), eq(600)))
+                .thenReturn(CompletableFuture.completedFuture(new LlmCompletion("1. Data Ana", 120, 600)))
+                .thenReturn(CompletableFuture.completedFuture(new LlmCompletion("1. Data Analyst", 120, 310)));
+
+        assertEquals("1. Data Ana", suggestionService.generateSuggestionsAsync(Map.of("skills", "SQL")).join().text());
+        verify(suggestionCache, never()).put(anyString(), anyString());
+
+        suggestionService.generateSuggestionsAsync(Map.of("skills", "SQL")).join();
+        verify(suggestionCache).put(anyString(), eq("1. Data Analyst"));
+    }
+
+    @Test
+    void testGenerateWithFallback_DisabledPropagatesError() {
+        when(inFlightGenerations.join(anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new AiUnavailableException("AI provider temporarily unavailable", 30)));
+
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> suggestionService.generateWithFallbackAsync(Map.of("skills", "Java")).join());
+
+        assertInstanceOf(AiUnavailableException.class, error.getCause());
+        verify(localSuggestionEngine, never()).suggest(any());
     }
 }
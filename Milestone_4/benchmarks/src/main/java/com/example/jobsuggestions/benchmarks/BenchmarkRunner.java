@@ -0,0 +1,24 @@
+package com.example.jobsuggestions.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point of benchmarks.jar. Takes the usual JMH command line (benchmark regex, -f, -wi, ...)
+// and always adds the GC profiler, so every run reports gc.alloc.rate.norm (bytes per operation).
+//
+//   java -jar target/benchmarks.jar                      # everything
+//   java -jar target/benchmarks.jar PromptBuild -f 2     # one class, two forks
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.jobsuggestions.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// End-to-end comparison of suggestions.threads.mode=platform and =virtual. For each mode and
+// concurrency level it starts the backend jar in its own JVM, pointed at an OpenRouter-compatible
+// stub served from this process that answers every completion after a fixed delay, then fires
+// that many POST /api/suggestions at once (distinct answers, so nothing is cached or coalesced)
+// and reports wall time, throughput, latency percentiles and the backend's peak platform threads.
+//
+//   cd Milestone_4 && mvn -B package -DskipTests
+//   java -cp benchmarks/target/benchmarks.jar com.example.jobsuggestions.benchmarks.ConcurrencyBenchmark \
+//        --java /path/to/jdk-21/bin/java --modes platform,virtual --concurrency 100,1000,5000 --latency-ms 1000
+//
+// --java picks the JVM for the backend (virtual mode needs Java 21; this harness runs on 17).
+// Backend output goes to benchmarks/target/concurrency-<mode>-<n>.log.
+public class ConcurrencyBenchmark {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final int USERS = 20;
+
+    private final Map<String, String> options;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private ConcurrencyBenchmark(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("java", Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        options.put("backend-jar", "backend/target/job-suggestions-0.0.1-SNAPSHOT-exec.jar");
+        options.put("modes", "platform,virtual");
+        options.put("concurrency", "100,1000,5000");
+        options.put("latency-ms", "1000");
+        options.put("port", "18080");
+        options.put("stub-port", "18090");
+        options.put("log-dir", "benchmarks/target");
+        // Requests sent (and not measured) before each measured batch, so the JIT has compiled the hot paths
+        options.put("warmup", "0");
+        // Extra space-separated backend arguments, e.g. "--logging.level.org.hibernate.SQL=DEBUG"
+        options.put("backend-args", "");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--") || !options.containsKey(args[i].substring(2))) {
+                throw new IllegalArgumentException("Unknown option " + args[i] + ", expected one of " + options.keySet());
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        new ConcurrencyBenchmark(options).run();
+    }
+
+    private void run() throws Exception {
+        long latencyMs = Long.parseLong(options.get("latency-ms"));
+        HttpServer stub = startSlowStub(Integer.parseInt(options.get("stub-port")), latencyMs);
+        List<String> rows = new ArrayList<>();
+        try {
+            for (String mode : options.get("modes").split(",")) {
+                for (String level : options.get("concurrency").split(",")) {
+                    rows.add(runOne(mode.trim(), Integer.parseInt(level.trim())));
+                }
+            }
+        } finally {
+            stub.stop(0);
+        }
+
+        System.out.println();
+        System.out.println("Stub latency " + latencyMs + " ms, backend JVM " + options.get("java"));
+        System.out.printf("%-9s %6s %6s %8s %9s %8s %8s %8s %8s %6s%n",
+                "mode", "n", "ok", "wall ms", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "peakT");
+        rows.forEach(System.out::println);
+    }
+
+    private String runOne(String mode, int concurrency) throws Exception {
+        int port = Integer.parseInt(options.get("port"));
+        File log = new File(options.get("log-dir"), "concurrency-" + mode + "-" + concurrency + ".log");
+        Process backend = startBackend(mode, port, log);
+        try {
+            if (!awaitPort(backend, port, 120_000)) {
+                return String.format("%-9s %6d  backend did not start, see %s", mode, concurrency, log);
+            }
+            String base = "http://127.0.0.1:" + port;
+            List<String> cookies = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                cookies.add(register(base, "bench-" + i));
+            }
+
+            int warmup = Integer.parseInt(options.get("warmup"));
+            if (warmup > 0) {
+                System.out.println("Warming up " + mode + " with " + warmup + " requests");
+                fire(base, cookies, "warmup", new long[warmup]);
+            }
+
+            System.out.println("Running " + mode + " x " + concurrency);
+            long[] latencies = new long[concurrency];
+            long start = System.nanoTime();
+            int ok = fire(base, cookies, mode + "-" + concurrency, latencies);
+            long wallNanos = System.nanoTime() - start;
+
+            JsonNode threads = getJson(base + "/api/stats/threads", cookies.get(0));
+            Arrays.sort(latencies);
+            return String.format("%-9s %6d %6d %8d %9.1f %8d %8d %8d %8d %6d",
+                    mode, concurrency, ok, TimeUnit.NANOSECONDS.toMillis(wallNanos),
+                    concurrency / (wallNanos / 1e9), percentileMs(latencies, 50), percentileMs(latencies, 95),
+                    percentileMs(latencies, 99), TimeUnit.NANOSECONDS.toMillis(latencies[concurrency - 1]),
+                    threads.path("peakThreads").asInt());
+        } finally {
+            backend.destroy();
+            if (!backend.waitFor(30, TimeUnit.SECONDS)) {
+                backend.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // Sends latencies.length requests at once and waits for all of them; returns how many got a 201
+    private int fire(String base, List<String> cookies, String tag, long[] latencies) {
+        AtomicInteger ok = new AtomicInteger();
+        List<CompletableFuture<?>> calls = new ArrayList<>(latencies.length);
+        for (int i = 0; i < latencies.length; i++) {
+            int index = i;
+            String body = "{\"answers\": {\"skills\": \"Java " + tag + "-" + i
+                    + "\", \"location\": \"Remote\", \"rolePreference\": \"Backend developer\"}}";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/suggestions"))
+                    .timeout(Duration.ofMinutes(10))
+                    .header("Content-Type", "application/json")
+                    .header("Cookie", cookies.get(i % USERS))
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long sent = System.nanoTime();
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error == null && response.statusCode() == 201) {
+                            ok.incrementAndGet();
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+        return ok.get();
+    }
+
+    private Process startBackend(String mode, int port, File log) throws IOException {
+        List<String> command = new ArrayList<>(List.of(options.get("java"), "-jar", options.get("backend-jar"),
+                "--server.port=" + port,
+                "--suggestions.threads.mode=" + mode,
+                "--llm.provider=openrouter",
+                "--llm.openrouter.base-url=http://127.0.0.1:" + options.get("stub-port") + "/api/v1",
+                "--llm.openrouter.request-timeout-ms=600000",
+                // Thousands of simultaneous connects can outrun the stub's accept loop on small machines
+                "--llm.openrouter.connect-timeout-ms=60000",
+                // Let every request reach the provider: the benchmark measures threading, not shedding
+                "--suggestions.ai.bulkhead.max-concurrent=100000",
+                "--suggestions.ai.breaker.slow-call-ms=600000",
+                "--suggestions.local.fallback-enabled=false",
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=10000"));
+        for (String arg : options.get("backend-args").trim().split("\\s+")) {
+            if (!arg.isEmpty()) {
+                command.add(arg);
+            }
+        }
+        log.getParentFile().mkdirs();
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+    }
+
+    private static boolean awaitPort(Process backend, int port, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            if (!backend.isAlive()) {
+                return false;
+            }
+            try (Socket socket = new Socket("127.0.0.1", port)) {
+                return true;
+            } catch (IOException e) {
+                Thread.sleep(250);
+            }
+        }
+        return false;
+    }
+
+    // Registers a user and returns its session cookie
+    private String register(String base, String username) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\": \"" + username + "\", \"password\": \"benchmark\"}"))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Registering " + username + " failed: " + response.body());
+        }
+        String setCookie = response.headers().firstValue("Set-Cookie").orElseThrow();
+        return setCookie.substring(0, setCookie.indexOf(';'));
+    }
+
+    // Stats endpoints are only served to a logged-in session
+    private JsonNode getJson(String url, String cookie) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url)).header("Cookie", cookie).build(),
+                HttpResponse.BodyHandlers.ofString());
+        return JSON.readTree(response.body());
+    }
+
+    private static long percentileMs(long[] sortedNanos, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sortedNanos[Math.max(0, index)]);
+    }
+
+    // OpenRouter-compatible chat completions endpoint that answers after latencyMs. Responses are
+    // scheduled rather than slept on, so the stub holds no thread per pending call.
+    private static HttpServer startSlowStub(int port, long latencyMs) throws IOException {
+        byte[] body = ("{\"choices\": [{\"message\": {\"role\": \"assistant\", \"content\": "
+                + "\"1. Job Title: Backend Developer\\n   Why: Benchmark stub.\\n   Next steps: none\"}}]}")
+                .getBytes(StandardCharsets.UTF_8);
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "stub-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 10_000);
+        server.setExecutor(Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "stub-http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.createContext("/api/v1/chat/completions", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            scheduler.schedule(() -> respond(exchange, body), latencyMs, TimeUnit.MILLISECONDS);
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) {
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            out.write(body);
+        } catch (IOException e) {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.jobsuggestions.benchmarks;
+
+import com.example.jobsuggestions.model.SuggestionSummary;
+import org.flywaydb.core.Flyway;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Query plans and timings for the SQL behind every SuggestionRepository / UserRepository finder,
+// on the prod schema (Flyway migrations from the backend jar) filled with --rows suggestions
+// spread over --users users. Each query is explained and timed with the migration's indexes,
+// then again without secondary indexes: idx_suggestions_user_entry, the index H2 creates for
+// the fk_suggestions_user foreign key, and uk_users_username are dropped, and restored afterwards. Only the index part of each
+// plan is printed: the /* ... */ comments H2 puts in EXPLAIN output.
+//
+//   cd Milestone_4 && mvn -B package -DskipTests
+//   java -cp benchmarks/target/benchmarks.jar com.example.jobsuggestions.benchmarks.QueryPlanBenchmark \
+//        --rows 1000000 --users 10000
+//
+// The default database is an H2 file under benchmarks/target/query-plans, recreated on each run.
+public class QueryPlanBenchmark {
+
+    private record Finder(String name, String sql, boolean byUser, boolean byUsername) {
+    }
+
+    private static final String SUMMARY_COLUMNS = "user_id, entry_number, created_at, SUBSTRING(suggestions, 1, "
+            + SuggestionSummary.HEADLINE_LENGTH + ")";
+
+    // The statements Hibernate issues for each finder, reduced to the columns and predicates that
+    // decide the plan. ?1 is a user id (or username), ?2 an entry number.
+    private static final List<Finder> FINDERS = List.of(
+            new Finder("findByUserIdOrderByEntryNumberAsc",
+                    "SELECT * FROM suggestions WHERE user_id = ? ORDER BY entry_number", true, false),
+            new Finder("findByUserIdAndEntryNumber",
+                    "SELECT * FROM suggestions WHERE user_id = ? AND entry_number = ?", true, false),
+            new Finder("findSummariesByUserId",
+                    "SELECT " + SUMMARY_COLUMNS + " FROM suggestions WHERE user_id = ? ORDER BY user_id, entry_number", true, false),
+            new Finder("findSummariesByUserIdAfter",
+                    "SELECT " + SUMMARY_COLUMNS + " FROM suggestions WHERE user_id = ? AND entry_number > ? "
+                            + "ORDER BY user_id, entry_number FETCH FIRST 20 ROWS ONLY", true, false),
+            new Finder("findVersion",
+                    "SELECT version FROM suggestions WHERE user_id = ? AND entry_number = ?", true, false),
+            new Finder("findListVersion",
+                    "SELECT COUNT(*), MAX(entry_number), SUM(version) FROM suggestions WHERE user_id = ?", true, false),
+            new Finder("findByUsername",
+                    "SELECT * FROM users WHERE username = ?", false, true),
+            new Finder("existsByUsername",
+                    "SELECT id FROM users WHERE username = ? FETCH FIRST 1 ROWS ONLY", false, true),
+            new Finder("findEntrySequence",
+                    "SELECT entry_sequence FROM users WHERE id = ?", true, false));
+
+    private static final Pattern PLAN_COMMENT = Pattern.compile("/\\*(.*?)\\*/", Pattern.DOTALL);
+
+    private final Map<String, String> options;
+    private final int rows;
+    private final int users;
+    private final int perUser;
+    private final Random random = new Random(42);
+
+    private QueryPlanBenchmark(Map<String, String> options) {
+        this.options = options;
+        this.rows = Integer.parseInt(options.get("rows"));
+        this.users = Integer.parseInt(options.get("users"));
+        this.perUser = Math.max(1, rows / users);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("url", "jdbc:h2:file:./benchmarks/target/query-plans/jobsuggestions");
+        options.put("username", "sa");
+        options.put("password", "");
+        options.put("rows", "1000000");
+        options.put("users", "10000");
+        // Timed executions per query with the indexes, and without them (full scans are slow)
+        options.put("queries", "2000");
+        options.put("queries-without", "20");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--") || !options.containsKey(args[i].substring(2))) {
+                throw new IllegalArgumentException("Unknown option " + args[i] + ", expected one of " + options.keySet());
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        new QueryPlanBenchmark(options).run();
+    }
+
+    private void run() throws Exception {
+        String url = options.get("url");
+        if (url.startsWith("jdbc:h2:file:./benchmarks/target/query-plans/")) {
+            deleteDirectory(Path.of("benchmarks/target/query-plans"));
+        }
+        Flyway.configure()
+                .dataSource(url, options.get("username"), options.get("password"))
+                .load()
+                .migrate();
+
+        try (Connection connection = DriverManager.getConnection(url, options.get("username"), options.get("password"))) {
+            long loadStart = System.nanoTime();
+            populate(connection);
+            System.out.printf("Loaded %,d users and %,d suggestions in %.1f s%n%n",
+                    users, (long) users * perUser, (System.nanoTime() - loadStart) / 1e9);
+            analyze(connection);
+
+            Map<String, String[]> indexed = measure(connection, Integer.parseInt(options.get("queries")));
+            dropIndexes(connection);
+            Map<String, String[]> unindexed = measure(connection, Integer.parseInt(options.get("queries-without")));
+            restoreIndexes(connection);
+
+            for (Finder finder : FINDERS) {
+                System.out.println(finder.name());
+                System.out.println("  with indexes:    " + indexed.get(finder.name())[0]);
+                System.out.println("  without indexes: " + unindexed.get(finder.name())[0]);
+            }
+            System.out.println();
+            System.out.printf("%-34s %16s %16s%n", "finder", "us/query", "us/query w/o idx");
+            for (Finder finder : FINDERS) {
+                System.out.printf("%-34s %16s %16s%n", finder.name(),
+                        indexed.get(finder.name())[1], unindexed.get(finder.name())[1]);
+            }
+        }
+    }
+
+    // Suggestions are inserted round-robin across users, as they would arrive over time, so a
+    // user's rows are spread over the whole table rather than stored next to each other
+    private void populate(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (username, password, entry_sequence) VALUES (?, ?, ?)")) {
+            for (int user = 1; user <= users; user++) {
+                insert.setString(1, username(user));
+                insert.setString(2, "$2a$10$abcdefghijklmnopqrstuu5Tq3dZp6Jq0Gq1GkK5Vd0a1b2c3d4e5f");
+                insert.setInt(3, perUser);
+                insert.addBatch();
+                if (user % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+
+        String text = "1. Job Title: Data Analyst\n   Why: Your SQL and statistics background fits the role.\n"
+                + "   Next steps: Build a portfolio project with a public dataset.\n\n"
+                + "2. Job Title: Business Intelligence Developer\n   Why: You enjoy turning data into dashboards.\n";
+        Timestamp start = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0));
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO suggestions (user_id, entry_number, answers_json, suggestions, external_api_data, "
+                        + "created_at, prompt_version, prompt_tokens, completion_tokens) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            long inserted = 0;
+            for (int entry = 1; entry <= perUser; entry++) {
+                for (int user = 1; user <= users; user++) {
+                    insert.setLong(1, user);
+                    insert.setInt(2, entry);
+                    insert.setString(3, "{\"skills\":\"SQL, Python\",\"location\":\"Remote\"}");
+                    insert.setString(4, text);
+                    insert.setString(5, "{\"integration\": \"OpenAI ChatGPT API\", \"aiGenerated\": true}");
+                    insert.setTimestamp(6, new Timestamp(start.getTime() + inserted * 1000));
+                    insert.setString(7, "career-v1");
+                    insert.setInt(8, 180);
+                    insert.setInt(9, 420);
+                    insert.addBatch();
+                    if (++inserted % 1000 == 0) {
+                        insert.executeBatch();
+                    }
+                    if (inserted % 100_000 == 0) {
+                        connection.commit();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private static void analyze(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    // finder name -> {plan, µs per query}
+    private Map<String, String[]> measure(Connection connection, int queries) throws SQLException {
+        Map<String, String[]> results = new LinkedHashMap<>();
+        for (Finder finder : FINDERS) {
+            String plan;
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + finder.sql())) {
+                bind(explain, finder);
+                try (ResultSet resultSet = explain.executeQuery()) {
+                    resultSet.next();
+                    plan = planComments(resultSet.getString(1));
+                }
+            }
+            try (PreparedStatement query = connection.prepareStatement(finder.sql())) {
+                // Untimed warm-up so every query is measured with the same JIT and cache state
+                for (int i = 0; i < Math.min(queries, 200); i++) {
+                    consume(query, finder);
+                }
+                long startedAt = System.nanoTime();
+                long rowsRead = 0;
+                for (int i = 0; i < queries; i++) {
+                    rowsRead += consume(query, finder);
+                }
+                double micros = (System.nanoTime() - startedAt) / 1e3 / queries;
+                results.put(finder.name(), new String[]{plan, String.format("%,.1f", micros)});
+                if (rowsRead == 0) {
+                    throw new IllegalStateException(finder.name() + " returned no rows");
+                }
+            }
+        }
+        return results;
+    }
+
+    private static String planComments(String plan) {
+        List<String> comments = new ArrayList<>();
+        Matcher matcher = PLAN_COMMENT.matcher(plan);
+        while (matcher.find()) {
+            comments.add(matcher.group(1).trim().replaceAll("\\s+", " "));
+        }
+        return String.join(" | ", comments);
+    }
+
+    private int consume(PreparedStatement query, Finder finder) throws SQLException {
+        bind(query, finder);
+        int count = 0;
+        try (ResultSet resultSet = query.executeQuery()) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                for (int column = 1; column <= columns; column++) {
+                    resultSet.getObject(column);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void bind(PreparedStatement statement, Finder finder) throws SQLException {
+        int user = 1 + random.nextInt(users);
+        if (finder.byUsername()) {
+            statement.setString(1, username(user));
+        } else {
+            statement.setLong(1, user);
+        }
+        if (statement.getParameterMetaData().getParameterCount() > 1) {
+            statement.setInt(2, 1 + random.nextInt(perUser));
+        }
+    }
+
+    private static void dropIndexes(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE suggestions DROP CONSTRAINT fk_suggestions_user");
+            statement.execute("DROP INDEX idx_suggestions_user_entry");
+            statement.execute("ALTER TABLE users DROP CONSTRAINT uk_users_username");
+        }
+        analyze(connection);
+    }
+
+    private static void restoreIndexes(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX idx_suggestions_user_entry ON suggestions (user_id, entry_number, version)");
+            statement.execute("ALTER TABLE suggestions ADD CONSTRAINT fk_suggestions_user FOREIGN KEY (user_id) REFERENCES users (id)");
+            statement.execute("ALTER TABLE users ADD CONSTRAINT uk_users_username UNIQUE (username)");
+        }
+        analyze(connection);
+    }
+
+    private static String username(int user) {
+        return String.format("user-%06d", user);
+    }
+
+    private static void deleteDirectory(Path directory) throws Exception {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = new ArrayList<>(walk.toList());
+        }
+        paths.sort((a, b) -> b.getNameCount() - a.getNameCount());
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+}
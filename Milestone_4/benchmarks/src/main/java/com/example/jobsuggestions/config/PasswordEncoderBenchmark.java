@@ -0,0 +1,39 @@
+package com.example.jobsuggestions.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// BCrypt cost of register (encode) and login (matches) at several strengths.
+// SecurityConfig uses the default strength, 10. Each step up doubles the work.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+
+    @Param({"4", "10", "12"})
+    private int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("correct horse battery staple");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("correct horse battery staple", hash);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.jobsuggestions.controller;
+
+import com.example.jobsuggestions.model.Suggestion;
+import com.example.jobsuggestions.model.SuggestionSummary;
+import com.example.jobsuggestions.service.SuggestionPayloadCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Builds the HashMap bodies the way SuggestionController does and serializes them with an
+// ObjectMapper configured like Spring Boot's (Java time module, ISO dates). cachedSuggestionDetail
+// is the same read when SuggestionPayloadCache already has the encoded JSON.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    // History list sizes: one default page and one maximum page
+    @Param({"20", "100"})
+    private int historySize;
+
+    private ObjectMapper objectMapper;
+    private Suggestion suggestion;
+    private SuggestionPayloadCache payloadCache;
+    private List<SuggestionSummary> summaries;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Map<String, String> answers = new HashMap<>();
+        answers.put("workHistory", "Three years as a shift lead at Publix");
+        answers.put("skills", "CSS, HTML, JavaScript");
+        answers.put("personalityTraits", "Organized, patient");
+        answers.put("locationPreference", "Tampa, FL");
+        answers.put("rolePreference", "Front-end developer");
+
+        // Typical completion: 5 suggestions of roughly 400 characters each
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            text.append(i).append(". Job Title: Role ").append(i).append('\n')
+                    .append("   Why: ").append("Matches the listed skills and work history. ".repeat(6)).append('\n')
+                    .append("   Next steps: Build a portfolio project; apply to two local openings.\n\n");
+        }
+
+        suggestion = new Suggestion();
+        suggestion.setUserId(1L);
+        suggestion.setEntryNumber(1);
+        suggestion.setAnswers(answers);
+        suggestion.setSuggestions(text.toString());
+        suggestion.setExternalApiData("{\"integration\": \"OpenAI ChatGPT API\", \"model\": \"openai/gpt-3.5-turbo\", \"status\": \"success\", \"aiGenerated\": true}");
+
+        summaries = new ArrayList<>();
+        String headline = text.substring(0, SuggestionSummary.HEADLINE_LENGTH);
+        for (int i = 1; i <= historySize; i++) {
+            summaries.add(new SuggestionSummary(1L, i, LocalDateTime.now(), headline));
+        }
+
+        payloadCache = new SuggestionPayloadCache(16_000_000, 60);
+        payloadCache.put(1L, 1, 0L, new SuggestionPayloadCache.Payload(suggestionDetail(), null));
+    }
+
+    // GET /api/suggestions/{entryNumber}
+    @Benchmark
+    public byte[] suggestionDetail() throws Exception {
+        return objectMapper.writeValueAsBytes(SuggestionController.toResponse(suggestion));
+    }
+
+    @Benchmark
+    public byte[] cachedSuggestionDetail() {
+        return payloadCache.get(1L, 1, 0L).json();
+    }
+
+    // GET /api/suggestions
+    @Benchmark
+    public byte[] summaryList() throws Exception {
+        List<HashMap<String, Object>> response = new ArrayList<>(summaries.size());
+        for (SuggestionSummary summary : summaries) {
+            response.add(SuggestionController.toSummaryResponse(summary));
+        }
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
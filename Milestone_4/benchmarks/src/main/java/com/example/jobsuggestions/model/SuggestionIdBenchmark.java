@@ -0,0 +1,63 @@
+package com.example.jobsuggestions.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// SuggestionId is the composite key Hibernate hashes and compares in the persistence context
+// on every load and flush. Objects.hash allocates a varargs array per call.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggestionIdBenchmark {
+
+    private static final int KEY_COUNT = 1_000;
+
+    private SuggestionId id;
+    private SuggestionId sameId;
+    private SuggestionId otherId;
+    private Map<SuggestionId, Integer> index;
+    private SuggestionId[] lookups;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        id = new SuggestionId(42L, 7);
+        sameId = new SuggestionId(42L, 7);
+        otherId = new SuggestionId(42L, 8);
+
+        index = new HashMap<>();
+        lookups = new SuggestionId[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            index.put(new SuggestionId((long) (i % 50), i), i);
+            lookups[i] = new SuggestionId((long) (i % 50), i);
+        }
+    }
+
+    @Benchmark
+    public int hashCodeOnly() {
+        return id.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsSame() {
+        return id.equals(sameId);
+    }
+
+    @Benchmark
+    public boolean equalsDifferent() {
+        return id.equals(otherId);
+    }
+
+    // hashCode + equals together, as a persistence-context lookup does
+    @Benchmark
+    public Integer mapLookup() {
+        next = (next + 1) % KEY_COUNT;
+        return index.get(lookups[next]);
+    }
+}
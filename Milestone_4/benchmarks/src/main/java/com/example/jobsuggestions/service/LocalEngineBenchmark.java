@@ -0,0 +1,51 @@
+package com.example.jobsuggestions.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The local rule-based engine behind instant previews and the AI fallback: ranking alone and
+// ranking plus rendering the suggestion text, for the full survey and a single-answer survey
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocalEngineBenchmark {
+
+    @Param({"full", "skillsOnly"})
+    private String survey;
+
+    private LocalSuggestionEngine engine;
+    private Map<String, String> answers;
+
+    @Setup
+    public void setUp() throws IOException {
+        engine = new LocalSuggestionEngine(new ClassPathResource("job-index.json"));
+
+        answers = new LinkedHashMap<>();
+        answers.put("skills", "CSS, HTML, JavaScript, customer service, scheduling");
+        if ("full".equals(survey)) {
+            answers.put("workHistory", "Three years as a shift lead at Publix, one year of freelance web work");
+            answers.put("personality", "Organized, patient, enjoys solving problems");
+            answers.put("location", "Remote");
+            answers.put("rolePreference", "Front-end developer");
+        }
+    }
+
+    @Benchmark
+    public List<LocalSuggestionEngine.Match> rank() {
+        return engine.rank(answers, 5);
+    }
+
+    @Benchmark
+    public String suggest() {
+        return engine.suggest(answers);
+    }
+}
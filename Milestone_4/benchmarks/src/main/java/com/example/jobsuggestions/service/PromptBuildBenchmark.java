@@ -0,0 +1,68 @@
+package com.example.jobsuggestions.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Prompt construction that runs before every OpenRouter call: PromptTemplates.render with the
+// budget check, for each registered template. readableLabels/cachedLabels compare the old
+// per-key regex with the PromptLabels cache.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptBuildBenchmark {
+
+    // 5 is the survey as shipped; 20 covers surveys with extra custom questions
+    @Param({"5", "20"})
+    private int answerCount;
+
+    @Param({PromptTemplates.CAREER_V1, PromptTemplates.CAREER_V2})
+    private String templateId;
+
+    private PromptTemplates templates;
+    private PromptTemplate template;
+    private Map<String, String> answers;
+
+    @Setup
+    public void setUp() {
+        templates = new PromptTemplates(templateId, 3000);
+        template = templates.active();
+
+        answers = new LinkedHashMap<>();
+        answers.put("workHistory", "Three years as a shift lead at Publix, one year of freelance web work");
+        answers.put("skills", "CSS, HTML, JavaScript, customer service, scheduling");
+        answers.put("personalityTraits", "Organized, patient, enjoys solving problems");
+        answers.put("locationPreference", "Tampa, FL or remote");
+        answers.put("rolePreference", "Front-end developer");
+        for (int i = answers.size(); i < answerCount; i++) {
+            answers.put("customQuestionNumber" + i, "Answer to custom question " + i);
+        }
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return templates.render(template, answers);
+    }
+
+    // The per-key label conversion on its own: the regex the service used to run ...
+    @Benchmark
+    public void readableLabels(Blackhole blackhole) {
+        for (String key : answers.keySet()) {
+            blackhole.consume(key.replaceAll("([A-Z])", " $1").trim());
+        }
+    }
+
+    // ... and the cached labels it uses now
+    @Benchmark
+    public void cachedLabels(Blackhole blackhole) {
+        for (String key : answers.keySet()) {
+            blackhole.consume(PromptLabels.labelFor(key));
+        }
+    }
+}
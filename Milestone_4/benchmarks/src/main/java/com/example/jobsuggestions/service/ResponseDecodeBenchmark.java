@@ -0,0 +1,44 @@
+package com.example.jobsuggestions.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Pulling choices[0].message.content out of an OpenRouter response: the JsonNode tree the
+// service used to build versus OpenRouterLlmClient's streaming JsonParser walk.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseDecodeBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws Exception {
+        String content = StubLlmClient.suggestionsFor("benchmark prompt");
+        String json = "{\"id\":\"gen-1700000000-abc\",\"provider\":\"OpenAI\",\"model\":\"openai/gpt-3.5-turbo\","
+                + "\"object\":\"chat.completion\",\"created\":1700000000,"
+                + "\"choices\":[{\"logprobs\":null,\"finish_reason\":\"stop\",\"index\":0,"
+                + "\"message\":{\"role\":\"assistant\",\"content\":" + mapper.writeValueAsString(content) + ",\"refusal\":null}}],"
+                + "\"usage\":{\"prompt_tokens\":265,\"completion_tokens\":310,\"total_tokens\":575}}";
+        body = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String jsonNodeTree() throws Exception {
+        JsonNode root = mapper.readTree(body);
+        return root.get("choices").get(0).get("message").get("content").asText();
+    }
+
+    @Benchmark
+    public LlmCompletion streamingParser() throws Exception {
+        return OpenRouterLlmClient.extractCompletion(body);
+    }
+}
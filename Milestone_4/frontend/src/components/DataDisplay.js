@@ -5,6 +5,8 @@ function DataDisplay() {
   const [data, setData] = useState([])
   const [loading, setLoading] = useState(true)
   const [error, setError] = useState(null)
+  // Full entries fetched on demand - the list endpoint only returns summaries
+  const [details, setDetails] = useState({})
 
   useEffect(() => {
     fetchData()
@@ -56,6 +58,30 @@ function DataDisplay() {
     }
   }
 
+  const toggleDetails = async (entryNumber) => {
+    if (details[entryNumber]) {
+      const { [entryNumber]: _removed, ...rest } = details
+      setDetails(rest)
+      return
+    }
+
+    try {
+      const response = await fetch(`/api/suggestions/${entryNumber}`, {
+        credentials: 'include'
+      })
+
+      if (!response.ok) {
+        const errorData = await response.json()
+        throw new Error(errorData.error || 'Failed to load details')
+      }
+
+      const detail = await response.json()
+      setDetails(prev => ({ ...prev, [entryNumber]: detail }))
+    } catch (err) {
+      setError(err.message)
+    }
+  }
+
   const handleDelete = async (id) => {
     if (!window.confirm('Are you sure you want to delete this?')) {
       return
@@ -78,6 +104,30 @@ function DataDisplay() {
     }
   }
 
+  // Removes the whole history with one bulk request
+  const handleDeleteAll = async () => {
+    if (!window.confirm('Are you sure you want to delete all entries?')) {
+      return
+    }
+
+    try {
+      const response = await fetch('/api/suggestions?all=true', {
+        method: 'DELETE',
+        credentials: 'include'
+      })
+
+      if (!response.ok) {
+        const errorData = await response.json()
+        throw new Error(errorData.error || 'Failed to delete')
+      }
+
+      setDetails({})
+      fetchData()
+    } catch (err) {
+      setError(err.message)
+    }
+  }
+
   if (loading) {
     return React.createElement('div', { 
       className: 'page',
@@ -130,6 +180,11 @@ function DataDisplay() {
       className: 'refresh-btn',
       'aria-label': 'Refresh data list'
     }, 'Refresh'),
+    data.length > 0 && React.createElement('button', {
+      onClick: handleDeleteAll,
+      className: 'delete-btn',
+      'aria-label': `Delete all ${data.length} entries`
+    }, 'Delete All'),
     data.length === 0
       ? React.createElement('p', { 
           role: 'status',
@@ -143,6 +198,7 @@ function DataDisplay() {
           data.map((item, index) => {
             // Use entryNumber from database (user-specific), otherwise fall back to index
             const entryNumber = item.entryNumber || (index + 1)
+            const detail = details[item.entryNumber || entryNumber]
             return React.createElement('article', { 
               key: item.id, 
               className: 'data-item',
@@ -156,62 +212,70 @@ function DataDisplay() {
                   item.createdAt ? new Date(item.createdAt).toLocaleString() : 'N/A'
                 )
               ),
-              React.createElement('section', { 'aria-labelledby': `entry-${item.id}-answers` },
-                React.createElement('div', { style: { display: 'flex', alignItems: 'center', gap: '0.5rem', marginBottom: '0.5rem' } },
-                  React.createElement('p', { style: { margin: 0 } },
-                    React.createElement('strong', { id: `entry-${item.id}-answers` }, 'Answers:')
+              item.headline && React.createElement('p', { className: 'headline' }, item.headline),
+              React.createElement('button', {
+                onClick: () => toggleDetails(item.entryNumber || entryNumber),
+                'aria-expanded': detail ? 'true' : 'false',
+                'aria-label': `${detail ? 'Hide' : 'View'} details for entry number ${entryNumber}`
+              }, detail ? 'Hide details' : 'View details'),
+              detail && React.createElement('div', { className: 'entry-details' },
+                React.createElement('section', { 'aria-labelledby': `entry-${item.id}-answers` },
+                  React.createElement('div', { style: { display: 'flex', alignItems: 'center', gap: '0.5rem', marginBottom: '0.5rem' } },
+                    React.createElement('p', { style: { margin: 0 } },
+                      React.createElement('strong', { id: `entry-${item.id}-answers` }, 'Answers:')
+                    ),
+                    React.createElement(ReadAloudButton, {
+                      text: JSON.stringify(detail.answers, null, 2),
+                      label: `Read aloud: Answers for entry ${index + 1}`
+                    })
                   ),
-                  React.createElement(ReadAloudButton, {
-                    text: JSON.stringify(item.answers, null, 2),
-                    label: `Read aloud: Answers for entry ${index + 1}`
-                  })
+                  React.createElement('pre', { 
+                    'aria-label': 'Survey answers',
+                    tabIndex: 0
+                  }, JSON.stringify(detail.answers, null, 2))
                 ),
-                React.createElement('pre', { 
-                  'aria-label': 'Survey answers',
-                  tabIndex: 0
-                }, JSON.stringify(item.answers, null, 2))
-              ),
-              React.createElement('section', { 'aria-labelledby': `entry-${item.id}-suggestions` },
-                React.createElement('div', { style: { display: 'flex', alignItems: 'center', gap: '0.5rem', marginBottom: '0.5rem' } },
-                  React.createElement('p', { style: { margin: 0 } },
-                    React.createElement('strong', { id: `entry-${item.id}-suggestions` }, 'Suggestions:')
+                React.createElement('section', { 'aria-labelledby': `entry-${item.id}-suggestions` },
+                  React.createElement('div', { style: { display: 'flex', alignItems: 'center', gap: '0.5rem', marginBottom: '0.5rem' } },
+                    React.createElement('p', { style: { margin: 0 } },
+                      React.createElement('strong', { id: `entry-${item.id}-suggestions` }, 'Suggestions:')
+                    ),
+                    React.createElement(ReadAloudButton, {
+                      text: detail.suggestions || 'N/A',
+                      label: `Read aloud: Job suggestions for entry ${index + 1}`
+                    })
                   ),
-                  React.createElement(ReadAloudButton, {
-                    text: item.suggestions || 'N/A',
-                    label: `Read aloud: Job suggestions for entry ${index + 1}`
-                  })
+                  React.createElement('pre', { 
+                    style: { whiteSpace: 'pre-wrap' },
+                    'aria-label': 'Job suggestions',
+                    tabIndex: 0
+                  },
+                    detail.suggestions || 'N/A'
+                  )
                 ),
-                React.createElement('pre', { 
-                  style: { whiteSpace: 'pre-wrap' },
-                  'aria-label': 'Job suggestions',
-                  tabIndex: 0
+                detail.externalApiData && React.createElement('section', { 
+                  style: { marginTop: '0.5rem' },
+                  'aria-labelledby': `entry-${item.id}-api`
                 },
-                  item.suggestions || 'N/A'
-                )
-              ),
-              item.externalApiData && React.createElement('section', { 
-                style: { marginTop: '0.5rem' },
-                'aria-labelledby': `entry-${item.id}-api`
-              },
-                React.createElement('div', { style: { display: 'flex', alignItems: 'center', gap: '0.5rem', marginBottom: '0.5rem' } },
-                  React.createElement('p', { style: { margin: 0 } },
-                    React.createElement('strong', { id: `entry-${item.id}-api` }, 'External API Data:')
+                  React.createElement('div', { style: { display: 'flex', alignItems: 'center', gap: '0.5rem', marginBottom: '0.5rem' } },
+                    React.createElement('p', { style: { margin: 0 } },
+                      React.createElement('strong', { id: `entry-${item.id}-api` }, 'External API Data:')
+                    ),
+                    React.createElement(ReadAloudButton, {
+                      text: typeof detail.externalApiData === 'string' 
+                        ? detail.externalApiData 
+                        : JSON.stringify(detail.externalApiData, null, 2),
+                      label: `Read aloud: External API data for entry ${index + 1}`
+                    })
                   ),
-                  React.createElement(ReadAloudButton, {
-                    text: typeof item.externalApiData === 'string' 
-                      ? item.externalApiData 
-                      : JSON.stringify(item.externalApiData, null, 2),
-                    label: `Read aloud: External API data for entry ${index + 1}`
-                  })
-                ),
-                React.createElement('pre', { 
-                  style: { fontSize: '0.85rem', maxHeight: '200px', overflow: 'auto' },
-                  'aria-label': 'External API integration details',
-                  tabIndex: 0
-                },
-                  typeof item.externalApiData === 'string' 
-                    ? item.externalApiData 
-                    : JSON.stringify(item.externalApiData, null, 2)
+                  React.createElement('pre', { 
+                    style: { fontSize: '0.85rem', maxHeight: '200px', overflow: 'auto' },
+                    'aria-label': 'External API integration details',
+                    tabIndex: 0
+                  },
+                    typeof detail.externalApiData === 'string' 
+                      ? detail.externalApiData 
+                      : JSON.stringify(detail.externalApiData, null, 2)
+                  )
                 )
               ),
               React.createElement('button', {
@@ -12,6 +12,8 @@ function FormPage() {
   const [submitting, setSubmitting] = useState(false)
   const [result, setResult] = useState(null)
   const [error, setError] = useState(null)
+  const [preview, setPreview] = useState(null)
+  const [previewing, setPreviewing] = useState(false)
 
   const handleChange = (e) => {
     setFormData({
@@ -81,6 +83,7 @@ function FormPage() {
 
       const data = await response.json()
       setResult(data)
+      setPreview(null)
       
       setFormData({
         workHistory: '',
@@ -102,6 +105,36 @@ function FormPage() {
     }
   }
 
+  // Instant preview from the backend's local matcher: no AI call, nothing is saved
+  const handlePreview = async () => {
+    setPreviewing(true)
+    setError(null)
+    try {
+      const answers = Object.fromEntries(Object.entries(formData).filter(([key, value]) => value && value.trim() !== ''))
+      if (Object.keys(answers).length === 0) {
+        setError('Fill in at least one field to see a preview.')
+        return
+      }
+      const response = await fetch('/api/suggestions/preview', {
+        method: 'POST',
+        headers: {
+          'Content-Type': 'application/json'
+        },
+        credentials: 'include',
+        body: JSON.stringify({ answers })
+      })
+      const data = await response.json()
+      if (!response.ok) {
+        throw new Error(data.error || `Preview failed with status ${response.status}.`)
+      }
+      setPreview(data)
+    } catch (err) {
+      setError(err.message || 'Preview failed.')
+    } finally {
+      setPreviewing(false)
+    }
+  }
+
   const fieldConfig = {
     workHistory: {
       label: 'Work History',
@@ -242,7 +275,33 @@ function FormPage() {
         disabled: submitting,
         className: 'submit-btn',
         'aria-label': submitting ? 'Submitting form, please wait' : 'Submit survey form'
-      }, submitting ? 'Submitting...' : 'Submit Survey')
+      }, submitting ? 'Submitting...' : 'Submit Survey'),
+      React.createElement('button', {
+        type: 'button',
+        onClick: handlePreview,
+        disabled: previewing || submitting,
+        className: 'submit-btn',
+        style: { marginLeft: '0.5rem' },
+        'aria-label': 'Preview matching jobs instantly without saving'
+      }, previewing ? 'Previewing...' : 'Preview instantly')
+    ),
+    preview && !result && React.createElement('div', {
+      className: 'result-section',
+      role: 'status',
+      'aria-live': 'polite'
+    },
+      React.createElement('div', { style: { display: 'flex', alignItems: 'center', gap: '0.5rem', marginBottom: '0.5rem' } },
+        React.createElement('h3', null, 'Instant Preview'),
+        React.createElement(ReadAloudButton, {
+          text: preview.suggestions || 'N/A',
+          label: 'Read aloud: Instant preview'
+        })
+      ),
+      React.createElement('p', null, 'Quick matches from your answers. Submit the survey for full AI suggestions.'),
+      React.createElement('pre', {
+        'aria-label': 'Instant preview of matching jobs',
+        tabIndex: 0
+      }, preview.suggestions || 'N/A')
     ),
     error && React.createElement('div', { 
       className: 'error-message',